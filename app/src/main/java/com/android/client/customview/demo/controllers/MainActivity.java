@@ -13,11 +13,16 @@ import static com.github.ali.android.client.customview.view.SlidingDrawer.STICK_
 import static com.github.ali.android.client.customview.view.SlidingDrawer.STICK_TO_RIGHT;
 import static com.github.ali.android.client.customview.view.SlidingDrawer.STICK_TO_TOP;
 import static com.android.client.customview.demo.controllers.SlidingDrawerFragment.ARG_STICK_TO;
+import static com.android.client.customview.demo.controllers.StressFragment.ARG_SCENARIO;
 
 public class MainActivity extends AppCompatActivity implements AdapterView.OnItemClickListener {
 
     private static final String[] ITEMS = {"STICK TO BOTTOM", "STICK TO LEFT",
-            "STICK TO RIGHT", "STICK TO TOP"};
+            "STICK TO RIGHT", "STICK TO TOP", "STRESS: MANY DRAWERS",
+            "STRESS: HEAVY CONTENT", "STRESS: LIST ROWS", "STRESS: RAPID TOGGLE"};
+
+    /* Position of the first stress scenario, in the order of the scenario constants */
+    private static final int FIRST_STRESS_ITEM = 4;
 
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -33,6 +38,13 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
 
     @Override
     public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
+        if (position >= FIRST_STRESS_ITEM) {
+            Intent intent = new Intent(this, StressActivity.class);
+            intent.putExtra(ARG_SCENARIO, position - FIRST_STRESS_ITEM);
+            startActivity(intent);
+            return;
+        }
+
         Intent intent = new Intent(this, SlidingDrawerActivity.class);
         switch (position) {
             case 0:
@@ -0,0 +1,35 @@
+package com.android.client.customview.demo.controllers;
+
+import android.os.Bundle;
+import android.support.v4.app.FragmentManager;
+import android.support.v7.app.AppCompatActivity;
+import android.util.Log;
+
+import com.android.client.customview.demo.R;
+
+import static com.android.client.customview.demo.controllers.StressFragment.ARG_AUTO_RUN;
+import static com.android.client.customview.demo.controllers.StressFragment.ARG_SCENARIO;
+
+public class StressActivity extends AppCompatActivity {
+
+    private static final String TAG = "StressActivity";
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        Log.d(TAG, "onCreate()");
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_sliding_drawer);
+
+        if (savedInstanceState == null) {
+            FragmentManager fragmentManager = getSupportFragmentManager();
+            final int scenario = getIntent().getIntExtra(ARG_SCENARIO, 0);
+            final boolean autoRun = getIntent().getBooleanExtra(ARG_AUTO_RUN, false);
+            StressFragment fragment = StressFragment.newInstance(scenario, autoRun);
+            fragmentManager.beginTransaction().replace(
+                    R.id.content_fragment,
+                    fragment,
+                    StressFragment.TAG)
+                    .commit();
+        }
+    }
+}
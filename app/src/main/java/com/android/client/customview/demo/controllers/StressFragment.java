@@ -0,0 +1,485 @@
+package com.android.client.customview.demo.controllers;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.Bundle;
+import android.support.v4.app.Fragment;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.Button;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.ListView;
+import android.widget.ProgressBar;
+import android.widget.RelativeLayout;
+import android.widget.TextView;
+
+import com.android.client.customview.demo.R;
+import com.android.client.customview.demo.stress.FrameStatsRecorder;
+import com.android.client.customview.demo.stress.GestureScript;
+import com.github.ali.android.client.customview.view.SlidingDrawer;
+import com.github.ali.android.client.customview.view.SlidingDrawerTransition;
+
+import java.util.ArrayList;
+
+/**
+ * Runs one of the stress scenarios, and replays its scripted gestures on demand while
+ * recording frame statistics, so library changes can be compared on the same workload.
+ */
+public class StressFragment extends Fragment implements View.OnClickListener {
+
+    public static final String TAG = "StressFragment";
+
+    public static final String ARG_SCENARIO = "scenario";
+
+    /**
+     * Starts the scripted run as soon as the scenario is shown, e.g. for
+     * {@code adb shell am start ... --ei scenario 0 --ez autoRun true}
+     */
+    public static final String ARG_AUTO_RUN = "autoRun";
+
+    public static final int SCENARIO_MANY_DRAWERS = 0;
+    public static final int SCENARIO_HEAVY_CONTENT = 1;
+    public static final int SCENARIO_LIST_ROWS = 2;
+    public static final int SCENARIO_RAPID_TOGGLE = 3;
+
+    private static final String[] SCENARIO_NAMES = {"Many drawers", "Heavy content",
+            "List rows", "Rapid toggle"};
+
+    private static final int[] DRAWER_COLORS = {R.color.seafoam, R.color.chartreuse,
+            R.color.emerald, R.color.bluegrass, R.color.turquoise, R.color.slate};
+
+    /* Workload sizes of the scenarios */
+    private static final int DRAWER_COUNT = 8;
+    private static final int HEAVY_ROWS = 12;
+    private static final int HEAVY_COLUMNS = 3;
+    private static final int LIST_ROW_COUNT = 200;
+    private static final int TOGGLE_COUNT = 60;
+
+    /* Timings of the scripts, in milliseconds */
+    private static final long DRAG_DURATION = 300;
+    private static final long FLING_DURATION = 150;
+    private static final long SETTLE_PAUSE = 500;
+    private static final long TOGGLE_INTERVAL = 50;
+    private static final long AUTO_RUN_DELAY = 1000;
+
+    private static final int DRAG_ROUNDS = 5;
+    private static final int LIST_ROUNDS = 10;
+
+    /* Share of the drawer length covered by a scripted drag */
+    private static final float DRAG_TRAVEL = 0.8f;
+
+    private int mScenario;
+
+    private Button mRunButton;
+    private TextView mStatsText;
+
+    private final ArrayList<SlidingDrawer> mDrawers = new ArrayList<>();
+
+    private ListView mList;
+
+    private GestureScript mScript;
+
+    private FrameStatsRecorder mRecorder;
+
+    public static StressFragment newInstance(int scenario, boolean autoRun) {
+        StressFragment fragment = new StressFragment();
+        Bundle args = new Bundle();
+        args.putInt(ARG_SCENARIO, scenario);
+        args.putBoolean(ARG_AUTO_RUN, autoRun);
+        fragment.setArguments(args);
+        return fragment;
+    }
+
+    @Override
+    public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
+        Log.d(TAG, "onCreateView()");
+        return inflater.inflate(R.layout.fragment_stress, container, false);
+    }
+
+    @Override
+    public void onViewCreated(View view, Bundle savedInstanceState) {
+        Log.d(TAG, "onViewCreated()");
+        super.onViewCreated(view, savedInstanceState);
+
+        final Bundle args = getArguments();
+        mScenario = args.getInt(ARG_SCENARIO);
+
+        mRunButton = (Button) view.findViewById(R.id.runButton);
+        mRunButton.setOnClickListener(this);
+        mStatsText = (TextView) view.findViewById(R.id.statsText);
+
+        final FrameLayout content = (FrameLayout) view.findViewById(R.id.stressContent);
+        final LayoutInflater inflater = LayoutInflater.from(getActivity());
+        switch (mScenario) {
+            case SCENARIO_MANY_DRAWERS:
+                createManyDrawers(content);
+                break;
+            case SCENARIO_HEAVY_CONTENT:
+                createHeavyContent(inflater, content);
+                break;
+            case SCENARIO_LIST_ROWS:
+                createListRows(content);
+                break;
+            case SCENARIO_RAPID_TOGGLE:
+                createRapidToggle(inflater, content);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown scenario: " + mScenario);
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            mRecorder = new FrameStatsRecorder(getActivity().getWindowManager()
+                    .getDefaultDisplay().getRefreshRate());
+        }
+
+        if (savedInstanceState == null && args.getBoolean(ARG_AUTO_RUN)) {
+            view.postDelayed(new Runnable() {
+                @Override
+                public void run() {
+                    if (isResumed()) {
+                        startRun();
+                    }
+                }
+            }, AUTO_RUN_DELAY);
+        }
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+
+        if (mScript != null) {
+            mScript.stop();
+        }
+        if (mRecorder != null) {
+            mRecorder.stop();
+        }
+        mDrawers.clear();
+        mList = null;
+    }
+
+    @Override
+    public void onClick(View v) {
+        if (mScript != null && mScript.isRunning()) {
+            stopRun();
+        } else {
+            startRun();
+        }
+    }
+
+    /**
+     * A row of drawers, each in its own column, all moved by gestures one after the
+     * other and then by transitions all together.
+     */
+    private void createManyDrawers(FrameLayout content) {
+        final Context context = getActivity();
+        final int drawerSize = getResources().getDimensionPixelSize(R.dimen.stress_drawer_size);
+
+        final LinearLayout columns = new LinearLayout(context);
+        columns.setOrientation(LinearLayout.HORIZONTAL);
+        content.addView(columns, new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
+        for (int i = 0; i < DRAWER_COUNT; i++) {
+            final RelativeLayout column = new RelativeLayout(context);
+            columns.addView(column, new LinearLayout.LayoutParams(0,
+                    ViewGroup.LayoutParams.MATCH_PARENT, 1f));
+
+            final SlidingDrawer drawer = new SlidingDrawer(context);
+            drawer.setBackgroundColor(getResources().getColor(
+                    DRAWER_COLORS[i % DRAWER_COLORS.length]));
+
+            final RelativeLayout.LayoutParams params = new RelativeLayout.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, drawerSize);
+            params.addRule(RelativeLayout.ALIGN_PARENT_BOTTOM);
+            column.addView(drawer, params);
+            mDrawers.add(drawer);
+        }
+    }
+
+    /**
+     * A single drawer with deeply nested content, including animated progress bars that
+     * keep invalidating while the drawer moves.
+     */
+    private void createHeavyContent(LayoutInflater inflater, FrameLayout content) {
+        final Context context = getActivity();
+        final View root = inflater.inflate(R.layout.stress_heavy_content, content, true);
+        final LinearLayout container = (LinearLayout) root.findViewById(R.id.heavyContainer);
+
+        int item = 0;
+        for (int row = 0; row < HEAVY_ROWS; row++) {
+            final LinearLayout rowLayout = new LinearLayout(context);
+            rowLayout.setOrientation(LinearLayout.HORIZONTAL);
+            container.addView(rowLayout, new LinearLayout.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, 0, 1f));
+
+            for (int column = 0; column < HEAVY_COLUMNS; column++) {
+                final FrameLayout cell = new FrameLayout(context);
+                rowLayout.addView(cell, new LinearLayout.LayoutParams(0,
+                        ViewGroup.LayoutParams.MATCH_PARENT, 1f));
+
+                final LinearLayout cellContent = new LinearLayout(context);
+                cellContent.setOrientation(LinearLayout.HORIZONTAL);
+                cell.addView(cellContent);
+
+                final ProgressBar progress = new ProgressBar(context, null,
+                        android.R.attr.progressBarStyleSmall);
+                progress.setIndeterminate(true);
+                cellContent.addView(progress);
+
+                final TextView text = new TextView(context);
+                text.setText(getString(R.string.stress_heavy_item, item++));
+                cellContent.addView(text);
+            }
+        }
+
+        mDrawers.add((SlidingDrawer) root.findViewById(R.id.slidingDrawer));
+    }
+
+    /**
+     * A long list with a drawer in every row, recycled with
+     * {@link SlidingDrawer#resetDrawer(boolean)}.
+     */
+    private void createListRows(FrameLayout content) {
+        mList = new ListView(getActivity());
+        mList.setAdapter(new StressRowAdapter());
+        content.addView(mList, new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+    }
+
+    /**
+     * One drawer at each edge, opened and closed programmatically in quick succession,
+     * one by one and with transitions.
+     */
+    private void createRapidToggle(LayoutInflater inflater, FrameLayout content) {
+        final View root = inflater.inflate(R.layout.stress_toggle, content, true);
+        mDrawers.add((SlidingDrawer) root.findViewById(R.id.bottomDrawer));
+        mDrawers.add((SlidingDrawer) root.findViewById(R.id.topDrawer));
+        mDrawers.add((SlidingDrawer) root.findViewById(R.id.leftDrawer));
+        mDrawers.add((SlidingDrawer) root.findViewById(R.id.rightDrawer));
+    }
+
+    private GestureScript createScript() {
+        final GestureScript script = new GestureScript(getView());
+
+        switch (mScenario) {
+            case SCENARIO_MANY_DRAWERS:
+                for (int i = 0; i < mDrawers.size(); i++) {
+                    addOpenAndClose(script, mDrawers.get(i));
+                }
+                script.action(new Runnable() {
+                    @Override
+                    public void run() {
+                        final SlidingDrawerTransition transition = new SlidingDrawerTransition();
+                        for (int i = 0; i < mDrawers.size(); i++) {
+                            transition.open(mDrawers.get(i));
+                        }
+                        transition.start();
+                    }
+                }).pause(SETTLE_PAUSE).action(new Runnable() {
+                    @Override
+                    public void run() {
+                        SlidingDrawerTransition.closeAll(mDrawers.toArray(
+                                new SlidingDrawer[mDrawers.size()]));
+                    }
+                }).pause(SETTLE_PAUSE);
+                break;
+
+            case SCENARIO_HEAVY_CONTENT:
+                for (int i = 0; i < DRAG_ROUNDS; i++) {
+                    addOpenAndClose(script, mDrawers.get(0));
+                }
+                break;
+
+            case SCENARIO_LIST_ROWS:
+                final int width = mList.getWidth();
+                final int height = mList.getHeight();
+                final int rowY = height / 4;
+                final int inset = getResources().getDimensionPixelSize(R.dimen.stress_row_offset) / 2;
+                for (int i = 0; i < LIST_ROUNDS; i++) {
+                    //Open the drawer of a row, then scroll it away
+                    script.drag(mList, width - inset, rowY, width * (1f - DRAG_TRAVEL), rowY,
+                            DRAG_DURATION)
+                            .pause(SETTLE_PAUSE)
+                            .drag(mList, width / 2, height * DRAG_TRAVEL,
+                                    width / 2, height * (1f - DRAG_TRAVEL), FLING_DURATION)
+                            .pause(SETTLE_PAUSE);
+                }
+                break;
+
+            case SCENARIO_RAPID_TOGGLE:
+                for (int i = 0; i < TOGGLE_COUNT; i++) {
+                    script.action(new ToggleAction(i)).pause(TOGGLE_INTERVAL);
+                }
+                script.pause(SETTLE_PAUSE);
+                break;
+        }
+        return script;
+    }
+
+    /**
+     * Adds a drag that opens a bottom drawer and one that closes it again.
+     */
+    private void addOpenAndClose(GestureScript script, SlidingDrawer drawer) {
+        final float x = drawer.getWidth() / 2;
+        final float y = getResources().getDimensionPixelSize(R.dimen.stress_drawer_offset) / 2;
+        final float travel = drawer.getHeight() * DRAG_TRAVEL;
+
+        script.drag(drawer, x, y, x, y - travel, DRAG_DURATION)
+                .pause(SETTLE_PAUSE)
+                .drag(drawer, x, y, x, y + travel, DRAG_DURATION)
+                .pause(SETTLE_PAUSE);
+    }
+
+    private void startRun() {
+        mScript = createScript();
+        mRunButton.setText(R.string.stress_stop);
+        mStatsText.setText(R.string.stress_running);
+
+        if (mRecorder != null) {
+            mRecorder.start();
+        }
+        mScript.start(new Runnable() {
+            @Override
+            public void run() {
+                finishRun();
+            }
+        });
+    }
+
+    private void finishRun() {
+        mRunButton.setText(R.string.stress_run);
+
+        final String summary;
+        if (mRecorder != null) {
+            mRecorder.stop();
+            summary = SCENARIO_NAMES[mScenario] + ": " + mRecorder.getSummary();
+        } else {
+            summary = getString(R.string.stress_no_frame_stats);
+        }
+        Log.i(TAG, summary);
+        mStatsText.setText(summary);
+    }
+
+    private void stopRun() {
+        mScript.stop();
+        if (mRecorder != null) {
+            mRecorder.stop();
+        }
+        mRunButton.setText(R.string.stress_run);
+        mStatsText.setText(R.string.stress_idle);
+    }
+
+    /**
+     * Opens all drawers on even and closes them on odd steps; every second pair of
+     * steps uses a transition instead of the drawers' own animations.
+     */
+    private final class ToggleAction implements Runnable {
+
+        private final int mStep;
+
+        ToggleAction(int step) {
+            mStep = step;
+        }
+
+        @Override
+        public void run() {
+            final boolean open = mStep % 2 == 0;
+
+            if (mStep % 4 >= 2) {
+                final SlidingDrawerTransition transition = new SlidingDrawerTransition();
+                for (int i = 0; i < mDrawers.size(); i++) {
+                    if (open) {
+                        transition.open(mDrawers.get(i));
+                    } else {
+                        transition.close(mDrawers.get(i));
+                    }
+                }
+                transition.start();
+                return;
+            }
+
+            for (int i = 0; i < mDrawers.size(); i++) {
+                if (open) {
+                    mDrawers.get(i).openDrawer();
+                } else {
+                    mDrawers.get(i).closeDrawer();
+                }
+            }
+        }
+    }
+
+    /**
+     * Rows with a drawer each. The opened rows are remembered by position and restored
+     * on every bind.
+     */
+    private final class StressRowAdapter extends BaseAdapter {
+
+        private final boolean[] mOpened = new boolean[LIST_ROW_COUNT];
+
+        @Override
+        public int getCount() {
+            return LIST_ROW_COUNT;
+        }
+
+        @Override
+        public Object getItem(int position) {
+            return position;
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return position;
+        }
+
+        @Override
+        public View getView(int position, View convertView, ViewGroup parent) {
+            final RowHolder holder;
+            if (convertView == null) {
+                convertView = LayoutInflater.from(parent.getContext())
+                        .inflate(R.layout.item_stress_row, parent, false);
+                holder = new RowHolder(convertView);
+                convertView.setTag(holder);
+            } else {
+                holder = (RowHolder) convertView.getTag();
+            }
+
+            final String text = getString(R.string.stress_row, position);
+            holder.mPosition = position;
+            holder.mText.setText(text);
+            holder.mDrawerText.setText(text);
+            holder.mDrawer.resetDrawer(mOpened[position]);
+            return convertView;
+        }
+
+        private final class RowHolder implements SlidingDrawer.OnInteractListener {
+
+            private final TextView mText;
+            private final TextView mDrawerText;
+            private final SlidingDrawer mDrawer;
+
+            private int mPosition;
+
+            RowHolder(View row) {
+                mText = (TextView) row.findViewById(R.id.rowText);
+                mDrawerText = (TextView) row.findViewById(R.id.rowDrawerText);
+                mDrawer = (SlidingDrawer) row.findViewById(R.id.rowDrawer);
+                mDrawer.setOnInteractListener(this);
+            }
+
+            @Override
+            public void onOpened() {
+                mOpened[mPosition] = true;
+            }
+
+            @Override
+            public void onClosed() {
+                mOpened[mPosition] = false;
+            }
+        }
+    }
+}
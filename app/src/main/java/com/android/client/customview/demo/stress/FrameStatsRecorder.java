@@ -0,0 +1,97 @@
+package com.android.client.customview.demo.stress;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+
+import java.util.Locale;
+
+/**
+ * Records the intervals between frames while started, to compare the smoothness of a
+ * scenario across library changes. A frame is janky if it took longer than one and a
+ * half refresh periods, i.e. at least one vsync was missed.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+public class FrameStatsRecorder implements Choreographer.FrameCallback {
+
+    private static final float JANK_FACTOR = 1.5f;
+
+    private static final long NANOS_PER_MILLI = 1000000;
+
+    private final long mJankThresholdNanos;
+
+    private boolean mRunning;
+
+    private long mFirstFrameNanos;
+    private long mLastFrameNanos;
+
+    private int mFrames;
+    private int mJankyFrames;
+    private long mMaxFrameNanos;
+
+    /**
+     * @param refreshRate refresh rate of the display, in frames per second
+     */
+    public FrameStatsRecorder(float refreshRate) {
+        mJankThresholdNanos = (long) (JANK_FACTOR * 1000 * NANOS_PER_MILLI / refreshRate);
+    }
+
+    public void start() {
+        mFirstFrameNanos = 0;
+        mLastFrameNanos = 0;
+        mFrames = 0;
+        mJankyFrames = 0;
+        mMaxFrameNanos = 0;
+
+        mRunning = true;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    public void stop() {
+        mRunning = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mRunning) {
+            return;
+        }
+
+        if (mLastFrameNanos == 0) {
+            mFirstFrameNanos = frameTimeNanos;
+        } else {
+            final long frameNanos = frameTimeNanos - mLastFrameNanos;
+            mFrames++;
+            if (frameNanos > mJankThresholdNanos) {
+                mJankyFrames++;
+            }
+            mMaxFrameNanos = Math.max(mMaxFrameNanos, frameNanos);
+        }
+        mLastFrameNanos = frameTimeNanos;
+
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    public int getFrames() {
+        return mFrames;
+    }
+
+    public int getJankyFrames() {
+        return mJankyFrames;
+    }
+
+    /**
+     * Returns a one line summary of the recorded frames.
+     */
+    public String getSummary() {
+        final float totalMillis = (float) (mLastFrameNanos - mFirstFrameNanos) / NANOS_PER_MILLI;
+        final float jankPercent = mFrames > 0 ? 100f * mJankyFrames / mFrames : 0f;
+        final float averageMillis = mFrames > 0 ? totalMillis / mFrames : 0f;
+
+        return String.format(Locale.US,
+                "%d frames, %d janky (%.1f%%), max %.1f ms, avg %.1f ms",
+                mFrames, mJankyFrames, jankPercent,
+                (float) mMaxFrameNanos / NANOS_PER_MILLI, averageMillis);
+    }
+}
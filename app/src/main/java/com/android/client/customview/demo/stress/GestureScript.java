@@ -0,0 +1,220 @@
+package com.android.client.customview.demo.stress;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.util.ArrayList;
+
+/**
+ * A scripted sequence of drags, pauses and actions, replayed with synthetic touch
+ * events one step per frame, so that a scenario runs the same workload every time.
+ * <p/>
+ * Events are dispatched to the target view, which routes them through the hierarchy
+ * like real touches. Drag coordinates are local to a given view and resolved when the
+ * drag starts, so they follow views that moved in the meantime.
+ */
+public class GestureScript {
+
+    /* Interval between two injected move events */
+    private static final long FRAME_INTERVAL = 16;
+
+    private static final int STEP_DRAG = 0;
+    private static final int STEP_PAUSE = 1;
+    private static final int STEP_ACTION = 2;
+
+    private final View mTarget;
+
+    private final Handler mHandler = new Handler();
+
+    private final ArrayList<Step> mSteps = new ArrayList<>();
+
+    private final int[] mLocation = new int[2];
+
+    private int mStepIndex;
+    private long mStepStartTime;
+
+    /* Screen position of the view of the current drag, at its start */
+    private float mOriginX;
+    private float mOriginY;
+
+    private Runnable mOnFinished;
+
+    private boolean mRunning;
+
+    private final Runnable mTick = new Runnable() {
+        @Override
+        public void run() {
+            step();
+        }
+    };
+
+    private static final class Step {
+        int type;
+        View view;
+        float fromX;
+        float fromY;
+        float toX;
+        float toY;
+        long duration;
+        Runnable action;
+    }
+
+    public GestureScript(View target) {
+        mTarget = target;
+    }
+
+    /**
+     * Adds a drag in a straight line between two points, local to the given view.
+     *
+     * @param duration time from the down to the up event, in milliseconds
+     */
+    public GestureScript drag(View view, float fromX, float fromY, float toX, float toY,
+                              long duration) {
+        final Step step = new Step();
+        step.type = STEP_DRAG;
+        step.view = view;
+        step.fromX = fromX;
+        step.fromY = fromY;
+        step.toX = toX;
+        step.toY = toY;
+        step.duration = duration;
+        mSteps.add(step);
+        return this;
+    }
+
+    /**
+     * Adds a pause, e.g. to let a settle animation finish.
+     */
+    public GestureScript pause(long duration) {
+        final Step step = new Step();
+        step.type = STEP_PAUSE;
+        step.duration = duration;
+        mSteps.add(step);
+        return this;
+    }
+
+    /**
+     * Adds an action that runs on the UI thread, e.g. to toggle drawers
+     * programmatically.
+     */
+    public GestureScript action(Runnable action) {
+        final Step step = new Step();
+        step.type = STEP_ACTION;
+        step.action = action;
+        mSteps.add(step);
+        return this;
+    }
+
+    /**
+     * Replays the script from its first step.
+     *
+     * @param onFinished invoked after the last step, unless stopped before
+     */
+    public void start(Runnable onFinished) {
+        mOnFinished = onFinished;
+        mStepIndex = 0;
+        mStepStartTime = 0;
+        mRunning = true;
+        mHandler.post(mTick);
+    }
+
+    /**
+     * Stops the script. A drag in progress is cancelled.
+     */
+    public void stop() {
+        if (!mRunning) {
+            return;
+        }
+
+        mRunning = false;
+        mHandler.removeCallbacks(mTick);
+        if (mStepStartTime != 0 && mSteps.get(mStepIndex).type == STEP_DRAG) {
+            final Step step = mSteps.get(mStepIndex);
+            inject(MotionEvent.ACTION_CANCEL, step.toX, step.toY);
+        }
+    }
+
+    public boolean isRunning() {
+        return mRunning;
+    }
+
+    private void step() {
+        if (!mRunning) {
+            return;
+        }
+        if (mStepIndex >= mSteps.size()) {
+            mRunning = false;
+            if (mOnFinished != null) {
+                mOnFinished.run();
+            }
+            return;
+        }
+
+        final Step step = mSteps.get(mStepIndex);
+        final long now = SystemClock.uptimeMillis();
+        final boolean started = mStepStartTime != 0;
+        if (!started) {
+            mStepStartTime = now;
+        }
+
+        switch (step.type) {
+            case STEP_ACTION:
+                step.action.run();
+                nextStep();
+                mHandler.post(mTick);
+                return;
+
+            case STEP_PAUSE:
+                if (now - mStepStartTime >= step.duration) {
+                    nextStep();
+                }
+                break;
+
+            case STEP_DRAG:
+                if (!started) {
+                    step.view.getLocationOnScreen(mLocation);
+                    mOriginX = mLocation[0];
+                    mOriginY = mLocation[1];
+                    inject(MotionEvent.ACTION_DOWN, step.fromX, step.fromY);
+                    break;
+                }
+
+                final float fraction = step.duration > 0 ?
+                        Math.min(1f, (float) (now - mStepStartTime) / step.duration) : 1f;
+                inject(MotionEvent.ACTION_MOVE,
+                        step.fromX + (step.toX - step.fromX) * fraction,
+                        step.fromY + (step.toY - step.fromY) * fraction);
+                if (fraction >= 1f) {
+                    inject(MotionEvent.ACTION_UP, step.toX, step.toY);
+                    nextStep();
+                }
+                break;
+
+            default:
+                throw new IllegalStateException("Unknown step type: " + step.type);
+        }
+        mHandler.postDelayed(mTick, FRAME_INTERVAL);
+    }
+
+    private void nextStep() {
+        mStepIndex++;
+        mStepStartTime = 0;
+    }
+
+    /**
+     * Dispatches an event at a point local to the view of the current drag. The raw
+     * coordinates are screen coordinates, as for real touches.
+     */
+    private void inject(int action, float x, float y) {
+        mTarget.getLocationOnScreen(mLocation);
+
+        final long downTime = mStepStartTime;
+        final MotionEvent event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(),
+                action, mOriginX + x, mOriginY + y, 0);
+        event.offsetLocation(-mLocation[0], -mLocation[1]);
+        mTarget.dispatchTouchEvent(event);
+        event.recycle();
+    }
+}
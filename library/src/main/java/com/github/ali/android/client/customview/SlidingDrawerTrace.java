@@ -0,0 +1,116 @@
+package com.github.ali.android.client.customview;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Trace;
+import android.util.Log;
+
+import java.lang.reflect.Method;
+
+/**
+ * Systrace/Perfetto sections around the hot paths of the drawers. Tracing is off until
+ * {@link #setEnabled(boolean)} is called, and is stripped from the library altogether
+ * when the {@code TRACE_ENABLED} build config field is false.
+ */
+public final class SlidingDrawerTrace {
+
+    private static final String TAG = "SlidingDrawerTrace";
+
+    /* Compile-time switch, all tracing is dead code if false */
+    private static final boolean COMPILED = BuildConfig.TRACE_ENABLED;
+
+    private static boolean sEnabled;
+
+    /* Hidden async trace methods of android.os.Trace, resolved on first use */
+    private static boolean sAsyncResolved;
+    private static long sTraceTagApp;
+    private static Method sAsyncTraceBegin;
+    private static Method sAsyncTraceEnd;
+
+    private SlidingDrawerTrace() {
+    }
+
+    /**
+     * Turns tracing on or off for all drawers.
+     */
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    /**
+     * Returns whether sections shall be traced. Callers check this once and pair their
+     * begin and end calls on the result, so toggling cannot unbalance a section.
+     */
+    public static boolean isEnabled() {
+        return COMPILED && sEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+    }
+
+    /**
+     * Begins a section on the calling thread, to be closed by {@link #endSection()}.
+     * Only to be called if {@link #isEnabled()} returned true.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    public static void beginSection(String name) {
+        Trace.beginSection(name);
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    public static void endSection() {
+        Trace.endSection();
+    }
+
+    /**
+     * Begins a section that may end on another call stack, e.g. a whole gesture. Does
+     * nothing on platforms that do not support async sections.
+     *
+     * @param cookie identifies the section among overlapping sections of the same name
+     */
+    public static void beginAsyncSection(String name, int cookie) {
+        invokeAsync(getAsyncTraceBegin(), name, cookie);
+    }
+
+    public static void endAsyncSection(String name, int cookie) {
+        invokeAsync(getAsyncTraceEnd(), name, cookie);
+    }
+
+    private static Method getAsyncTraceBegin() {
+        resolveAsync();
+        return sAsyncTraceBegin;
+    }
+
+    private static Method getAsyncTraceEnd() {
+        resolveAsync();
+        return sAsyncTraceEnd;
+    }
+
+    private static void resolveAsync() {
+        if (sAsyncResolved) {
+            return;
+        }
+        sAsyncResolved = true;
+
+        try {
+            sTraceTagApp = Trace.class.getField("TRACE_TAG_APP").getLong(null);
+            sAsyncTraceBegin = Trace.class.getMethod("asyncTraceBegin",
+                    long.class, String.class, int.class);
+            sAsyncTraceEnd = Trace.class.getMethod("asyncTraceEnd",
+                    long.class, String.class, int.class);
+        } catch (Exception e) {
+            Log.w(TAG, "Async trace sections are not supported.", e);
+            sAsyncTraceBegin = null;
+            sAsyncTraceEnd = null;
+        }
+    }
+
+    private static void invokeAsync(Method method, String name, int cookie) {
+        if (method == null) {
+            return;
+        }
+
+        try {
+            method.invoke(null, sTraceTagApp, name, cookie);
+        } catch (Exception e) {
+            Log.w(TAG, "Failed to trace " + name, e);
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.github.ali.android.client.customview;
 
+import android.app.ActivityManager;
 import android.content.Context;
+import android.os.Build;
+import android.os.PowerManager;
+import android.os.SystemClock;
+import android.provider.Settings;
 import android.util.DisplayMetrics;
 import android.view.View;
 
+import java.util.WeakHashMap;
+
 public class SlidingDrawerUtils {
 
     /**
@@ -16,28 +23,211 @@ public class SlidingDrawerUtils {
      */
     private static final int MAX_CLICK_DISTANCE = 5;
 
+    /**
+     * Metrics of the windows of the process, by their root view, shared by all drawers
+     * of a window. Only accessed from the UI thread.
+     */
+    private static final WeakHashMap<View, WindowMetrics> sWindowMetrics = new WeakHashMap<>();
+
+    /* Scratch array for window locations, only accessed from the UI thread */
+    private static final int[] sLocation = new int[2];
+
+    /**
+     * Time in milliseconds after which the motion settings of the device are read again,
+     * as battery saver and the animator duration scale can change at any time.
+     */
+    private static final long MOTION_SETTINGS_TIMEOUT = 1000;
+
+    /* Motion settings of the device, only accessed from the UI thread */
+    private static long sMotionSettingsTime = -1;
+    private static boolean sReducedMotion;
+    private static float sAnimatorDurationScale = 1f;
+
+    /**
+     * Window size and click threshold of a window, resolved once per configuration.
+     */
+    private static final class WindowMetrics {
+
+        /* Size of the window */
+        int windowWidth;
+        int windowHeight;
+
+        /* Max distance to move during a "click", in pixels */
+        float clickDistance;
+
+        boolean valid;
+
+        boolean matches(View root) {
+            //Window sizes can also change without a configuration change, e.g. for dialogs
+            return valid && windowWidth == root.getWidth() && windowHeight == root.getHeight();
+        }
+
+        void resolve(View root) {
+            final DisplayMetrics metrics = root.getResources().getDisplayMetrics();
+            clickDistance = MAX_CLICK_DISTANCE * metrics.density;
+
+            if (root.getWidth() > 0 && root.getHeight() > 0) {
+                windowWidth = root.getWidth();
+                windowHeight = root.getHeight();
+                valid = true;
+            } else {
+                //Not laid out yet, fall back to the display and retry on next call
+                windowWidth = metrics.widthPixels;
+                windowHeight = metrics.heightPixels;
+                valid = false;
+            }
+        }
+    }
+
+    private static WindowMetrics obtainWindowMetrics(View v) {
+        final View root = v.getRootView();
+
+        WindowMetrics windowMetrics = sWindowMetrics.get(root);
+        if (windowMetrics == null) {
+            windowMetrics = new WindowMetrics();
+            sWindowMetrics.put(root, windowMetrics);
+        }
+        if (!windowMetrics.matches(root)) {
+            windowMetrics.resolve(root);
+        }
+        return windowMetrics;
+    }
+
+    /**
+     * Drops the shared metrics, so they are resolved again on next access. To be
+     * called whenever the configuration changes; window sizes are checked on access.
+     */
+    public static void invalidateWindowMetrics() {
+        sWindowMetrics.clear();
+    }
+
+    /**
+     * Returns the height of the window the given view is attached to.
+     */
+    public static int getWindowHeight(View v) {
+        return obtainWindowMetrics(v).windowHeight;
+    }
+
+    /**
+     * Returns the top of the window the given view is attached to, in screen
+     * coordinates, e.g. to map raw touch coordinates into the window. Not 0 for split
+     * screen panes, freeform windows and dialogs.
+     */
+    public static int getWindowTopOnScreen(View v) {
+        final int[] location = sLocation;
+        v.getRootView().getLocationOnScreen(location);
+        return location[1];
+    }
+
+    /**
+     * Returns the width of the window the given view is attached to.
+     */
+    public static int getWindowWidth(View v) {
+        return obtainWindowMetrics(v).windowWidth;
+    }
+
+    /**
+     * @deprecated Ignores window insets and multi-window sizes, use
+     * {@link #getWindowHeight(View)} instead.
+     */
+    @Deprecated
     public static int getRawDisplayHeight(Context context) {
         DisplayMetrics metrics = context.getResources().getDisplayMetrics();
         return metrics.heightPixels;
     }
 
+    /**
+     * @deprecated Ignores window insets and multi-window sizes, use
+     * {@link #getWindowWidth(View)} instead.
+     */
+    @Deprecated
     public static int getRawDisplayWidth(Context context) {
         DisplayMetrics metrics = context.getResources().getDisplayMetrics();
         return metrics.widthPixels;
     }
 
+    /**
+     * Returns whether motion should be reduced on this device, because it is a low-RAM
+     * device, battery saver is on or animations are scaled down or off.
+     */
+    public static boolean isReducedMotionPreferred(Context context) {
+        updateMotionSettings(context);
+        return sReducedMotion;
+    }
+
+    /**
+     * Returns the animator duration scale of the developer options, where 0 means that
+     * animations are off.
+     */
+    public static float getAnimatorDurationScale(Context context) {
+        updateMotionSettings(context);
+        return sAnimatorDurationScale;
+    }
+
+    /**
+     * Drops the motion settings, so they are read again on next access.
+     */
+    public static void invalidateMotionSettings() {
+        sMotionSettingsTime = -1;
+    }
+
+    private static void updateMotionSettings(Context context) {
+        final long now = SystemClock.uptimeMillis();
+        if (sMotionSettingsTime >= 0 && now - sMotionSettingsTime < MOTION_SETTINGS_TIMEOUT) {
+            return;
+        }
+        sMotionSettingsTime = now;
+
+        float durationScale = 1f;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            durationScale = Settings.Global.getFloat(context.getContentResolver(),
+                    Settings.Global.ANIMATOR_DURATION_SCALE, 1f);
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            //noinspection deprecation
+            durationScale = Settings.System.getFloat(context.getContentResolver(),
+                    Settings.System.ANIMATOR_DURATION_SCALE, 1f);
+        }
+        sAnimatorDurationScale = durationScale;
+
+        boolean lowRam = false;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            final ActivityManager activityManager = (ActivityManager)
+                    context.getSystemService(Context.ACTIVITY_SERVICE);
+            lowRam = activityManager != null && activityManager.isLowRamDevice();
+        }
+
+        boolean powerSave = false;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            final PowerManager powerManager = (PowerManager)
+                    context.getSystemService(Context.POWER_SERVICE);
+            powerSave = powerManager != null && powerManager.isPowerSaveMode();
+        }
+
+        sReducedMotion = lowRam || powerSave || durationScale < 1f;
+    }
+
     public static int getLocationInYAxis(View v) {
-        final int[] globalPos = new int[2];
+        final int[] globalPos = sLocation;
         v.getLocationInWindow(globalPos);
         return globalPos[1];
     }
 
     public static int getLocationInXAxis(View v) {
-        final int[] globalPos = new int[2];
+        final int[] globalPos = sLocation;
         v.getLocationInWindow(globalPos);
         return globalPos[0];
     }
 
+    public static boolean isClicked(View v, float diff, long pressDuration) {
+        return pressDuration < MAX_CLICK_DURATION &&
+                Math.abs(diff) < obtainWindowMetrics(v).clickDistance;
+    }
+
+    /**
+     * @deprecated Resolves the display metrics on every call, use
+     * {@link #isClicked(View, float, long)} instead.
+     */
+    @Deprecated
     public static boolean isClicked(Context context, float diff, long pressDuration) {
         return pressDuration < MAX_CLICK_DURATION &&
                 distance(context, diff) < MAX_CLICK_DISTANCE;
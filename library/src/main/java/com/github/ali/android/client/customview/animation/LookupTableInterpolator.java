@@ -0,0 +1,205 @@
+package com.github.ali.android.client.customview.animation;
+
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
+import android.view.animation.LinearInterpolator;
+
+import java.util.HashMap;
+
+/**
+ * An {@link Interpolator} that evaluates a curve from a table of values sampled once
+ * at creation, with a linear interpolation between two neighbouring samples.
+ * <p/>
+ * Instances are immutable and cached by curve, so every drawer settling with the same
+ * curve shares the same table and no curve math is done per frame.
+ */
+public final class LookupTableInterpolator implements Interpolator {
+
+    /**
+     * Number of samples of a table, the first and the last one included.
+     */
+    private static final int SAMPLE_COUNT = 201;
+
+    /* Newton-Raphson settings to solve a cubic bezier for x */
+    private static final int NEWTON_ITERATIONS = 8;
+    private static final float NEWTON_EPSILON = 1e-6f;
+
+    /* Cubic bezier tables by their control points */
+    private static final HashMap<String, LookupTableInterpolator> sCache = new HashMap<>();
+
+    /* Tables of the platform curves, sampled once when the class is loaded */
+    private static final LookupTableInterpolator DECELERATE =
+            new LookupTableInterpolator(sample(new DecelerateInterpolator()));
+    private static final LookupTableInterpolator ACCELERATE_DECELERATE =
+            new LookupTableInterpolator(sample(new AccelerateDecelerateInterpolator()));
+    private static final LookupTableInterpolator LINEAR =
+            new LookupTableInterpolator(sample(new LinearInterpolator()));
+    private static final LookupTableInterpolator FAST_OUT_SLOW_IN =
+            cubicBezier(0.4f, 0f, 0.2f, 1f);
+
+    private final float[] mValues;
+
+    private final float mStepSize;
+
+    private LookupTableInterpolator(float[] values) {
+        mValues = values;
+        mStepSize = 1f / (values.length - 1);
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        if (input >= 1f) {
+            return mValues[mValues.length - 1];
+        }
+        if (input <= 0f) {
+            return mValues[0];
+        }
+
+        final int position = (int) (input * (mValues.length - 1));
+        final float weight = (input - position * mStepSize) / mStepSize;
+        return mValues[position] + weight * (mValues[position + 1] - mValues[position]);
+    }
+
+    /**
+     * Returns the shared table for {@link DecelerateInterpolator}.
+     */
+    public static LookupTableInterpolator decelerate() {
+        return DECELERATE;
+    }
+
+    /**
+     * Returns the shared table for {@link AccelerateDecelerateInterpolator}.
+     */
+    public static LookupTableInterpolator accelerateDecelerate() {
+        return ACCELERATE_DECELERATE;
+    }
+
+    /**
+     * Returns the shared table for {@link LinearInterpolator}.
+     */
+    public static LookupTableInterpolator linear() {
+        return LINEAR;
+    }
+
+    /**
+     * Returns the shared table for the material "fast out, slow in" curve.
+     */
+    public static LookupTableInterpolator fastOutSlowIn() {
+        return FAST_OUT_SLOW_IN;
+    }
+
+    /**
+     * Returns the shared table for a cubic bezier curve from (0, 0) to (1, 1), with
+     * the given control points, as defined for CSS transition timing functions.
+     *
+     * @param x1 x of the first control point, in [0, 1]
+     * @param y1 y of the first control point
+     * @param x2 x of the second control point, in [0, 1]
+     * @param y2 y of the second control point
+     */
+    public static LookupTableInterpolator cubicBezier(float x1, float y1, float x2, float y2) {
+        if (x1 < 0f || x1 > 1f || x2 < 0f || x2 > 1f) {
+            throw new IllegalArgumentException("Control point x values must be in [0, 1].");
+        }
+
+        final String key = "cubic-bezier(" + x1 + "," + y1 + "," + x2 + "," + y2 + ")";
+        synchronized (sCache) {
+            LookupTableInterpolator interpolator = sCache.get(key);
+            if (interpolator == null) {
+                interpolator = new LookupTableInterpolator(sampleCubicBezier(x1, y1, x2, y2));
+                sCache.put(key, interpolator);
+            }
+            return interpolator;
+        }
+    }
+
+    /**
+     * Parses a cubic bezier from four comma separated numbers, e.g. "0.4, 0, 0.2, 1".
+     *
+     * @see #cubicBezier(float, float, float, float)
+     */
+    public static LookupTableInterpolator cubicBezier(String definition) {
+        final String[] points = definition.split(",");
+        if (points.length != 4) {
+            throw new IllegalArgumentException("Invalid cubic bezier: " + definition);
+        }
+
+        try {
+            return cubicBezier(Float.parseFloat(points[0].trim()),
+                    Float.parseFloat(points[1].trim()),
+                    Float.parseFloat(points[2].trim()),
+                    Float.parseFloat(points[3].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cubic bezier: " + definition, e);
+        }
+    }
+
+    private static float[] sample(Interpolator interpolator) {
+        final float[] values = new float[SAMPLE_COUNT];
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            values[i] = interpolator.getInterpolation((float) i / (SAMPLE_COUNT - 1));
+        }
+        return values;
+    }
+
+    private static float[] sampleCubicBezier(float x1, float y1, float x2, float y2) {
+        final float[] values = new float[SAMPLE_COUNT];
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            final float x = (float) i / (SAMPLE_COUNT - 1);
+            values[i] = bezier(solveBezierForX(x, x1, x2), y1, y2);
+        }
+        return values;
+    }
+
+    /**
+     * Finds the parameter t for which the bezier reaches x, with Newton-Raphson and a
+     * bisection fallback for flat segments.
+     */
+    private static float solveBezierForX(float x, float x1, float x2) {
+        float t = x;
+        for (int i = 0; i < NEWTON_ITERATIONS; i++) {
+            final float error = bezier(t, x1, x2) - x;
+            if (Math.abs(error) < NEWTON_EPSILON) {
+                return t;
+            }
+            final float slope = bezierSlope(t, x1, x2);
+            if (Math.abs(slope) < NEWTON_EPSILON) {
+                break;
+            }
+            t -= error / slope;
+        }
+
+        float low = 0f;
+        float high = 1f;
+        t = x;
+        while (low < high) {
+            final float value = bezier(t, x1, x2);
+            if (Math.abs(value - x) < NEWTON_EPSILON) {
+                return t;
+            }
+            if (x > value) {
+                low = t;
+            } else {
+                high = t;
+            }
+            final float next = (low + high) / 2f;
+            if (next == t) {
+                break;
+            }
+            t = next;
+        }
+        return t;
+    }
+
+    /* One coordinate of a cubic bezier from 0 to 1, with control points p1 and p2 */
+    private static float bezier(float t, float p1, float p2) {
+        final float u = 1f - t;
+        return 3f * u * u * t * p1 + 3f * u * t * t * p2 + t * t * t;
+    }
+
+    private static float bezierSlope(float t, float p1, float p2) {
+        final float u = 1f - t;
+        return 3f * u * u * p1 + 6f * u * t * (p2 - p1) + 3f * t * t * (1f - p2);
+    }
+}
@@ -0,0 +1,403 @@
+package com.github.ali.android.client.customview.view;
+
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewPropertyAnimator;
+
+import static com.github.ali.android.client.customview.SlidingDrawerUtils.getLocationInYAxis;
+import static com.github.ali.android.client.customview.SlidingDrawerUtils.getWindowHeight;
+import static com.github.ali.android.client.customview.SlidingDrawerUtils.getWindowTopOnScreen;
+
+/**
+ * Geometry of the edge a {@link SlidingDrawer} sticks to. One stateless instance exists
+ * per edge and is resolved once per drawer, so the drawer maps coordinates, margins and
+ * translations without switching on its position for every event.
+ * <p/>
+ * All values are expressed along the sliding axis. The edge margin is the margin on the
+ * side the drawer sticks to, the far margin the one on the opposite side. The edge
+ * translation grows towards the opened state.
+ */
+abstract class DrawerEdge {
+
+    static final DrawerEdge BOTTOM = new Bottom();
+
+    static final DrawerEdge LEFT = new Left();
+
+    static final DrawerEdge RIGHT = new Right();
+
+    static final DrawerEdge TOP = new Top();
+
+    /**
+     * Returns the edge for a stickTo value, resolving start and end for the layout
+     * direction.
+     */
+    static DrawerEdge forStickTo(int stickTo, int layoutDirection) {
+        final boolean rtl = layoutDirection == View.LAYOUT_DIRECTION_RTL;
+
+        switch (stickTo) {
+            case SlidingDrawer.STICK_TO_BOTTOM:
+                return BOTTOM;
+            case SlidingDrawer.STICK_TO_LEFT:
+                return LEFT;
+            case SlidingDrawer.STICK_TO_RIGHT:
+                return RIGHT;
+            case SlidingDrawer.STICK_TO_TOP:
+                return TOP;
+            case SlidingDrawer.STICK_TO_START:
+                return rtl ? RIGHT : LEFT;
+            case SlidingDrawer.STICK_TO_END:
+                return rtl ? LEFT : RIGHT;
+        }
+        throw new IllegalArgumentException("Unknown stickTo value: " + stickTo);
+    }
+
+    abstract boolean isVertical();
+
+    /**
+     * Returns the size of the drawer along the sliding axis.
+     */
+    final int getLength(View drawer) {
+        return isVertical() ? drawer.getHeight() : drawer.getWidth();
+    }
+
+    /**
+     * Returns the space of the parent along the sliding axis that the drawer does not
+     * cover, i.e. the sum of both margins.
+     */
+    final int getDistance(View drawer) {
+        final View parent = (View) drawer.getParent();
+
+        if (isVertical()) {
+            return parent.getHeight() -
+                    parent.getPaddingTop() -
+                    parent.getPaddingBottom() -
+                    drawer.getHeight();
+        }
+        return parent.getWidth() -
+                parent.getPaddingLeft() -
+                parent.getPaddingRight() -
+                drawer.getWidth();
+    }
+
+    /**
+     * Returns the coordinate of a touch along the sliding axis, growing with the far
+     * margin, i.e. towards the closed state.
+     */
+    abstract int getTouchCoordinate(View drawer, MotionEvent event);
+
+    /**
+     * Returns the raw screen coordinate of a touch along the sliding axis.
+     */
+    final int getTapCoordinate(MotionEvent event) {
+        return isVertical() ? (int) event.getRawY() : (int) event.getRawX();
+    }
+
+    /**
+     * Returns whether a tap at the given raw coordinate hits the strip of a closed
+     * drawer that sticks out.
+     */
+    abstract boolean isOpenTap(View drawer, int tapCoordinate, int offsetDistance);
+
+    /**
+     * Returns whether a tap at the given raw coordinate hits the strip of an opened
+     * drawer that sticks out when closed.
+     */
+    abstract boolean isCloseTap(View drawer, int tapCoordinate, int offsetDistance);
+
+    /**
+     * Returns whether the local coordinates lie inside the strip that sticks out when
+     * the drawer is closed.
+     */
+    abstract boolean isInOffsetStrip(View drawer, float x, float y, int offsetDistance);
+
+    abstract int getEdgeMargin(ViewGroup.MarginLayoutParams params);
+
+    abstract int getFarMargin(ViewGroup.MarginLayoutParams params);
+
+    abstract void setMargins(ViewGroup.MarginLayoutParams params, int edgeMargin, int farMargin);
+
+    abstract float getEdgeTranslation(View drawer);
+
+    abstract void setEdgeTranslation(View drawer, float edgeTranslation);
+
+    abstract void animateEdgeTranslation(ViewPropertyAnimator animator, float edgeTranslation);
+
+    /**
+     * Moves the frame of the drawer to where its parent places it for the given
+     * margins, assuming the drawer is aligned to this edge of the parent.
+     */
+    abstract void offsetToMargins(View drawer, ViewGroup.MarginLayoutParams params);
+
+    private static final class Bottom extends DrawerEdge {
+
+        @Override
+        boolean isVertical() {
+            return true;
+        }
+
+        @Override
+        int getTouchCoordinate(View drawer, MotionEvent event) {
+            return (int) event.getRawY();
+        }
+
+        @Override
+        boolean isOpenTap(View drawer, int tapCoordinate, int offsetDistance) {
+            final View parent = (View) drawer.getParent();
+            return tapCoordinate > parent.getHeight() - offsetDistance;
+        }
+
+        @Override
+        boolean isCloseTap(View drawer, int tapCoordinate, int offsetDistance) {
+            //The tap is a screen coordinate, the window height is relative to the window
+            final int windowY = tapCoordinate - getWindowTopOnScreen(drawer);
+            return Math.abs(getWindowHeight(drawer) - windowY - drawer.getHeight()) <
+                    offsetDistance;
+        }
+
+        @Override
+        boolean isInOffsetStrip(View drawer, float x, float y, int offsetDistance) {
+            return y < offsetDistance;
+        }
+
+        @Override
+        int getEdgeMargin(ViewGroup.MarginLayoutParams params) {
+            return params.bottomMargin;
+        }
+
+        @Override
+        int getFarMargin(ViewGroup.MarginLayoutParams params) {
+            return params.topMargin;
+        }
+
+        @Override
+        void setMargins(ViewGroup.MarginLayoutParams params, int edgeMargin, int farMargin) {
+            params.bottomMargin = edgeMargin;
+            params.topMargin = farMargin;
+        }
+
+        @Override
+        float getEdgeTranslation(View drawer) {
+            return -drawer.getTranslationY();
+        }
+
+        @Override
+        void setEdgeTranslation(View drawer, float edgeTranslation) {
+            drawer.setTranslationY(-edgeTranslation);
+        }
+
+        @Override
+        void animateEdgeTranslation(ViewPropertyAnimator animator, float edgeTranslation) {
+            animator.translationY(-edgeTranslation);
+        }
+
+        @Override
+        void offsetToMargins(View drawer, ViewGroup.MarginLayoutParams params) {
+            final View parent = (View) drawer.getParent();
+            drawer.offsetTopAndBottom(parent.getHeight() - parent.getPaddingBottom() -
+                    params.bottomMargin - drawer.getBottom());
+        }
+    }
+
+    private static final class Left extends DrawerEdge {
+
+        @Override
+        boolean isVertical() {
+            return false;
+        }
+
+        @Override
+        int getTouchCoordinate(View drawer, MotionEvent event) {
+            return ((View) drawer.getParent()).getWidth() - (int) event.getRawX();
+        }
+
+        @Override
+        boolean isOpenTap(View drawer, int tapCoordinate, int offsetDistance) {
+            return tapCoordinate <= offsetDistance;
+        }
+
+        @Override
+        boolean isCloseTap(View drawer, int tapCoordinate, int offsetDistance) {
+            return tapCoordinate > drawer.getWidth() - offsetDistance;
+        }
+
+        @Override
+        boolean isInOffsetStrip(View drawer, float x, float y, int offsetDistance) {
+            return x > drawer.getWidth() - offsetDistance;
+        }
+
+        @Override
+        int getEdgeMargin(ViewGroup.MarginLayoutParams params) {
+            return params.leftMargin;
+        }
+
+        @Override
+        int getFarMargin(ViewGroup.MarginLayoutParams params) {
+            return params.rightMargin;
+        }
+
+        @Override
+        void setMargins(ViewGroup.MarginLayoutParams params, int edgeMargin, int farMargin) {
+            params.leftMargin = edgeMargin;
+            params.rightMargin = farMargin;
+        }
+
+        @Override
+        float getEdgeTranslation(View drawer) {
+            return drawer.getTranslationX();
+        }
+
+        @Override
+        void setEdgeTranslation(View drawer, float edgeTranslation) {
+            drawer.setTranslationX(edgeTranslation);
+        }
+
+        @Override
+        void animateEdgeTranslation(ViewPropertyAnimator animator, float edgeTranslation) {
+            animator.translationX(edgeTranslation);
+        }
+
+        @Override
+        void offsetToMargins(View drawer, ViewGroup.MarginLayoutParams params) {
+            final View parent = (View) drawer.getParent();
+            drawer.offsetLeftAndRight(parent.getPaddingLeft() + params.leftMargin -
+                    drawer.getLeft());
+        }
+    }
+
+    private static final class Right extends DrawerEdge {
+
+        @Override
+        boolean isVertical() {
+            return false;
+        }
+
+        @Override
+        int getTouchCoordinate(View drawer, MotionEvent event) {
+            return (int) event.getRawX();
+        }
+
+        @Override
+        boolean isOpenTap(View drawer, int tapCoordinate, int offsetDistance) {
+            final View parent = (View) drawer.getParent();
+            return parent.getWidth() - tapCoordinate <= offsetDistance;
+        }
+
+        @Override
+        boolean isCloseTap(View drawer, int tapCoordinate, int offsetDistance) {
+            final View parent = (View) drawer.getParent();
+            return parent.getWidth() - tapCoordinate > drawer.getWidth() - offsetDistance;
+        }
+
+        @Override
+        boolean isInOffsetStrip(View drawer, float x, float y, int offsetDistance) {
+            return x < offsetDistance;
+        }
+
+        @Override
+        int getEdgeMargin(ViewGroup.MarginLayoutParams params) {
+            return params.rightMargin;
+        }
+
+        @Override
+        int getFarMargin(ViewGroup.MarginLayoutParams params) {
+            return params.leftMargin;
+        }
+
+        @Override
+        void setMargins(ViewGroup.MarginLayoutParams params, int edgeMargin, int farMargin) {
+            params.rightMargin = edgeMargin;
+            params.leftMargin = farMargin;
+        }
+
+        @Override
+        float getEdgeTranslation(View drawer) {
+            return -drawer.getTranslationX();
+        }
+
+        @Override
+        void setEdgeTranslation(View drawer, float edgeTranslation) {
+            drawer.setTranslationX(-edgeTranslation);
+        }
+
+        @Override
+        void animateEdgeTranslation(ViewPropertyAnimator animator, float edgeTranslation) {
+            animator.translationX(-edgeTranslation);
+        }
+
+        @Override
+        void offsetToMargins(View drawer, ViewGroup.MarginLayoutParams params) {
+            final View parent = (View) drawer.getParent();
+            drawer.offsetLeftAndRight(parent.getWidth() - parent.getPaddingRight() -
+                    params.rightMargin - drawer.getRight());
+        }
+    }
+
+    private static final class Top extends DrawerEdge {
+
+        @Override
+        boolean isVertical() {
+            return true;
+        }
+
+        @Override
+        int getTouchCoordinate(View drawer, MotionEvent event) {
+            return getWindowHeight(drawer) - (int) event.getRawY();
+        }
+
+        @Override
+        boolean isOpenTap(View drawer, int tapCoordinate, int offsetDistance) {
+            final int y = getLocationInYAxis(drawer);
+            return tapCoordinate - Math.abs(y) <= offsetDistance;
+        }
+
+        @Override
+        boolean isCloseTap(View drawer, int tapCoordinate, int offsetDistance) {
+            final int y = getLocationInYAxis(drawer);
+            return drawer.getHeight() - (tapCoordinate - Math.abs(y)) < offsetDistance;
+        }
+
+        @Override
+        boolean isInOffsetStrip(View drawer, float x, float y, int offsetDistance) {
+            return y > drawer.getHeight() - offsetDistance;
+        }
+
+        @Override
+        int getEdgeMargin(ViewGroup.MarginLayoutParams params) {
+            return params.topMargin;
+        }
+
+        @Override
+        int getFarMargin(ViewGroup.MarginLayoutParams params) {
+            return params.bottomMargin;
+        }
+
+        @Override
+        void setMargins(ViewGroup.MarginLayoutParams params, int edgeMargin, int farMargin) {
+            params.topMargin = edgeMargin;
+            params.bottomMargin = farMargin;
+        }
+
+        @Override
+        float getEdgeTranslation(View drawer) {
+            return drawer.getTranslationY();
+        }
+
+        @Override
+        void setEdgeTranslation(View drawer, float edgeTranslation) {
+            drawer.setTranslationY(edgeTranslation);
+        }
+
+        @Override
+        void animateEdgeTranslation(ViewPropertyAnimator animator, float edgeTranslation) {
+            animator.translationY(edgeTranslation);
+        }
+
+        @Override
+        void offsetToMargins(View drawer, ViewGroup.MarginLayoutParams params) {
+            final View parent = (View) drawer.getParent();
+            drawer.offsetTopAndBottom(parent.getPaddingTop() + params.topMargin -
+                    drawer.getTop());
+        }
+    }
+}
@@ -3,30 +3,49 @@ package com.github.ali.android.client.customview.view;
 import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
 import android.content.Context;
-import android.content.res.TypedArray;
+import android.content.res.Configuration;
+import android.graphics.Rect;
+import android.os.Build;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.support.annotation.NonNull;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewConfiguration;
-import android.view.animation.DecelerateInterpolator;
+import android.view.ViewParent;
+import android.view.ViewPropertyAnimator;
+import android.view.animation.Interpolator;
 import android.widget.FrameLayout;
 import android.widget.RelativeLayout;
 
 import com.github.ali.android.client.customview.BuildConfig;
-import com.github.ali.android.client.customview.R;
+import com.github.ali.android.client.customview.SlidingDrawerTrace;
+import com.github.ali.android.client.customview.animation.LookupTableInterpolator;
 
-import static com.github.ali.android.client.customview.SlidingDrawerUtils.getLocationInXAxis;
-import static com.github.ali.android.client.customview.SlidingDrawerUtils.getLocationInYAxis;
-import static com.github.ali.android.client.customview.SlidingDrawerUtils.getRawDisplayHeight;
-import static com.github.ali.android.client.customview.SlidingDrawerUtils.getRawDisplayWidth;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+import static com.github.ali.android.client.customview.SlidingDrawerUtils.getAnimatorDurationScale;
+import static com.github.ali.android.client.customview.SlidingDrawerUtils.invalidateMotionSettings;
+import static com.github.ali.android.client.customview.SlidingDrawerUtils.invalidateWindowMetrics;
 import static com.github.ali.android.client.customview.SlidingDrawerUtils.isClicked;
+import static com.github.ali.android.client.customview.SlidingDrawerUtils.isReducedMotionPreferred;
 
 public class SlidingDrawer extends FrameLayout {
 
     private static final String TAG = "SlidingDrawer";
 
+    /* Names of the trace sections, see SlidingDrawerTrace */
+    private static final String TRACE_INTERCEPT = "SlidingDrawer#onInterceptTouchEvent";
+    private static final String TRACE_MOVE = "SlidingDrawer#onTouchEvent MOVE";
+    private static final String TRACE_SETTLE_START = "SlidingDrawer#settleStart";
+    private static final String TRACE_SETTLE_END = "SlidingDrawer#settleEnd";
+    private static final String TRACE_NOTIFY = "SlidingDrawer#notifyActionForState";
+    private static final String TRACE_ASYNC_GESTURE = "SlidingDrawer gesture";
+    private static final String TRACE_ASYNC_SETTLE = "SlidingDrawer settle";
+
     /* If in Debug/development mode */
     public static final boolean DEBUG = BuildConfig.DEBUG;
 
@@ -59,19 +78,109 @@ public class SlidingDrawer extends FrameLayout {
      */
     public static final int STICK_TO_TOP = 4;
 
+    /**
+     * Special value for the position of the layer. STICK_TO_START means that the
+     * view shall be attached to the start side of the screen, i.e. the left side for
+     * left-to-right and the right side for right-to-left layouts.
+     */
+    public static final int STICK_TO_START = 5;
+
+    /**
+     * Special value for the position of the layer. STICK_TO_END means that the
+     * view shall be attached to the end side of the screen, i.e. the right side for
+     * left-to-right and the left side for right-to-left layouts.
+     */
+    public static final int STICK_TO_END = 6;
+
+    /**
+     * Special value for the drag region of the layer. DRAG_REGION_DRAWER means that a
+     * drag may start anywhere inside the drawer.
+     */
+    public static final int DRAG_REGION_DRAWER = 0;
+
+    /**
+     * Special value for the drag region of the layer. DRAG_REGION_OFFSET means that a
+     * drag may only start inside the strip of {@code offsetDistance} that sticks out
+     * when the drawer is closed.
+     */
+    public static final int DRAG_REGION_OFFSET = 1;
+
+    /**
+     * Special value for the settle curve of the layer, see {@link #setSettleCurve(int)}.
+     * SETTLE_CURVE_DECELERATE starts fast and decelerates.
+     */
+    public static final int SETTLE_CURVE_DECELERATE = 0;
+
+    /**
+     * Special value for the settle curve of the layer, see {@link #setSettleCurve(int)}.
+     * SETTLE_CURVE_ACCELERATE_DECELERATE starts and ends slowly.
+     */
+    public static final int SETTLE_CURVE_ACCELERATE_DECELERATE = 1;
+
+    /**
+     * Special value for the settle curve of the layer, see {@link #setSettleCurve(int)}.
+     * SETTLE_CURVE_LINEAR moves at a constant rate.
+     */
+    public static final int SETTLE_CURVE_LINEAR = 2;
+
+    /**
+     * Special value for the settle curve of the layer, see {@link #setSettleCurve(int)}.
+     * SETTLE_CURVE_FAST_OUT_SLOW_IN is the material standard curve.
+     */
+    public static final int SETTLE_CURVE_FAST_OUT_SLOW_IN = 3;
+
+    /**
+     * Special value for the motion profile of the layer. MOTION_PROFILE_AUTO means that
+     * motion is reduced on low-RAM devices, with battery saver on or with animations
+     * scaled down in the developer options.
+     */
+    public static final int MOTION_PROFILE_AUTO = 0;
+
+    /**
+     * Special value for the motion profile of the layer. MOTION_PROFILE_FULL means that
+     * the drawer always runs its full animations.
+     */
+    public static final int MOTION_PROFILE_FULL = 1;
+
+    /**
+     * Special value for the motion profile of the layer. MOTION_PROFILE_REDUCED means
+     * that settling is shortened, or instant if animations are off, no hardware layer
+     * is used and drags update the layout in coarser steps.
+     */
+    public static final int MOTION_PROFILE_REDUCED = 2;
 
     /**
      * The default size of the panel that sticks out when closed
      */
-    private static final int DEFAULT_SLIDING_LAYER_OFFSET = 200;
+    static final int DEFAULT_SLIDING_LAYER_OFFSET = 200;
 
-    /* Duration for certain animations we use */
-    private static final int TRANSLATION_ANIM_DURATION = 300;
+    /* Default duration for the settle animation */
+    static final int TRANSLATION_ANIM_DURATION = 300;
 
     private static final PanelState DEFAULT_SLIDE_STATE = PanelState.CLOSE;
 
-    /* Positions of the last motion event */
-    private float mInitialCoordinate;
+    /* Factor by which the settle animation is shortened under reduced motion */
+    private static final int REDUCED_MOTION_DURATION_DIVISOR = 3;
+
+    /* Default fraction of the drag after which the content is prefetched */
+    static final float DEFAULT_PREFETCH_THRESHOLD = 0.25f;
+
+    /**
+     * Build.VERSION_CODES.O, not available at the compile SDK. From this version on,
+     * hardware accelerated children invalidate without passing through
+     * {@link #invalidateChildInParent(int[], Rect)}, so the content cannot be frozen.
+     */
+    private static final int VERSION_CODE_O = 26;
+
+    /* Positions of the last down event */
+    private float mInitialX;
+    private float mInitialY;
+
+    /* True once a gesture moved far enough along the sliding axis */
+    private boolean mIsBeingDragged;
+
+    /* True if the current gesture was rejected and shall be ignored until the next down */
+    private boolean mIsUnableToDrag;
 
     /* Drag threshold */
     private int mTouchSlop;
@@ -91,20 +200,167 @@ public class SlidingDrawer extends FrameLayout {
     private int mStickTo;
 
     /**
-     * Value for the orientation of the layer in the screen
+     * Edge the layer sticks to, resolved from the position and the layout direction
+     */
+    private DrawerEdge mEdge;
+
+    /**
+     * Value for the region of the layer in which a drag may start
+     */
+    private int mDragRegion;
+
+    /**
+     * Id of the child view that acts as drag handle, or {@link View#NO_ID}
+     */
+    private int mDragHandleId;
+
+    private View mDragHandle;
+
+    private final Rect mTempRect = new Rect();
+
+    /**
+     * Duration and curve of the settle animation
+     */
+    private int mSettleDuration;
+
+    private Interpolator mSettleInterpolator;
+
+    /**
+     * Requested motion profile, and whether motion is reduced as a result
      */
-    private scrollState mScrollOrientation;
+    private int mMotionProfile;
+
+    private boolean mReducedMotion;
+
+    /**
+     * Whether the content is frozen while the drawer moves, and whether it currently is
+     */
+    private boolean mFreezeContent;
+
+    private boolean mContentFrozen;
+
+    /* True if a child invalidated while the content was frozen */
+    private boolean mInvalidationDeferred;
+
+    /* Layer type to restore if the content was frozen into a hardware layer */
+    private int mFrozenLayerType = LAYER_TYPE_NONE;
+
+    private boolean mFrozenWithLayer;
+
+    /* Coordinate of the last move applied to the layout while dragging */
+    private int mLastDragCoordinate;
 
     private boolean init;
 
     private enum PanelState {OPEN, CLOSE}
 
-    private enum scrollState {VERTICAL, HORIZONTAL}
+    /**
+     * Motion state of the drawer, reported to the {@link OnDragStateChangeListener}.
+     */
+    public enum DragState {
+        /**
+         * The drawer rests in its opened or closed state.
+         */
+        IDLE,
+        /**
+         * The drawer follows the finger of the user.
+         */
+        DRAGGING,
+        /**
+         * The drawer animates into its opened or closed state.
+         */
+        SETTLING
+    }
+
+    private DragState mDragState = DragState.IDLE;
+
+    /* Async trace section of the drag state, if one was begun */
+    private String mTraceAsyncSection;
+
+    private final int mTraceCookie = System.identityHashCode(this);
 
     private PanelState mSlideState = DEFAULT_SLIDE_STATE;
 
+    private static final OnInteractListener[] NO_INTERACT_LISTENERS =
+            new OnInteractListener[0];
+
+    private static final OnDragStateChangeListener[] NO_DRAG_STATE_LISTENERS =
+            new OnDragStateChangeListener[0];
+
+    /**
+     * Listeners, replaced by a copy on every change so that dispatching can iterate a
+     * snapshot without allocating, even if a listener is removed by a callback
+     */
+    private OnInteractListener[] mInteractListeners = NO_INTERACT_LISTENERS;
+
+    private OnDragStateChangeListener[] mDragStateListeners = NO_DRAG_STATE_LISTENERS;
+
+    /* Listeners set through the single listener setters */
     private OnInteractListener mOnInteractListener;
 
+    private OnDragStateChangeListener mOnDragStateChangeListener;
+
+    /**
+     * Listener of the settle animation, reused by every animation of this drawer
+     */
+    private final SettleListener mSettleListener = new SettleListener();
+
+    /**
+     * Transition currently moving this drawer, see {@link SlidingDrawerTransition}
+     */
+    private SlidingDrawerTransition mTransition;
+
+    private OnPrefetchListener mOnPrefetchListener;
+
+    /**
+     * Executor of the prefetch, or null to prefetch when the UI thread is idle
+     */
+    private Executor mPrefetchExecutor;
+
+    /**
+     * Fraction of the way to the opened state after which a drag prefetches
+     */
+    private float mPrefetchThreshold;
+
+    /* True once the content was prefetched since the drawer was last closed */
+    private boolean mPrefetchRequested;
+
+    /* True while the prefetch waits for the UI thread to become idle */
+    private boolean mPrefetchIdlePending;
+
+    private final Runnable mPrefetchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            final OnPrefetchListener listener = mOnPrefetchListener;
+            if (listener != null) {
+                listener.onPrefetch(SlidingDrawer.this);
+            }
+        }
+    };
+
+    /* Prefetches once the closed drawer was held without dragging, i.e. peeked */
+    private final Runnable mPeekRunnable = new Runnable() {
+        @Override
+        public void run() {
+            requestPrefetch();
+        }
+    };
+
+    private final MessageQueue.IdleHandler mPrefetchIdleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            mPrefetchIdlePending = false;
+            mPrefetchRunnable.run();
+            return false;
+        }
+    };
+
+    /* Sizes the margins were last calculated for */
+    private int mLastWidth;
+    private int mLastHeight;
+    private int mLastParentWidth;
+    private int mLastParentHeight;
+
     public SlidingDrawer(Context context) {
         this(context, null);
     }
@@ -116,31 +372,63 @@ public class SlidingDrawer extends FrameLayout {
     public SlidingDrawer(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
 
-        //get the attributes specified in attrs.xml using the name we included
-        TypedArray a = context.getTheme().obtainStyledAttributes(attrs,
-                R.styleable.SlidingLayer, 0, 0);
+        applyConfig(SlidingDrawerConfig.obtain(context, attrs));
+    }
 
-        try {
-            mStickTo = a.getInteger(R.styleable.SlidingLayer_stickTo, STICK_TO_BOTTOM);
-            mOffsetDistance = a.getDimensionPixelSize(R.styleable.SlidingLayer_offsetDistance,
-                    DEFAULT_SLIDING_LAYER_OFFSET);
-        } finally {
-            a.recycle();
+    /**
+     * Applies a configuration to the drawer, replacing all values set by its attributes
+     * or by previous setter calls. The drawer is snapped into its state again by the
+     * next layout.
+     */
+    @SuppressWarnings("unused")
+    public void setConfig(@NonNull SlidingDrawerConfig config) {
+        final DrawerEdge previousEdge = mEdge;
+        applyConfig(config);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1 && getParent() != null) {
+            //Already attached, start and end follow the resolved direction of the view
+            mEdge = DrawerEdge.forStickTo(mStickTo, getLayoutDirection());
+        }
+        if (mEdge.isVertical() != previousEdge.isVertical() &&
+                getLayoutParams() instanceof RelativeLayout.LayoutParams) {
+            //Drop the margins of the previous sliding axis
+            final RelativeLayout.LayoutParams params = (RelativeLayout.LayoutParams)
+                    getLayoutParams();
+            previousEdge.setMargins(params, 0, 0);
         }
 
-        //Get system constants for touch thresholds
-        mTouchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+        mDragHandle = mDragHandleId != NO_ID ? findViewById(mDragHandleId) : null;
+        resolveMotionProfile();
+        requestLayout();
+    }
+
+    private void applyConfig(SlidingDrawerConfig config) {
+        mStickTo = config.getStickTo();
+        mOffsetDistance = config.getOffsetDistance();
+        mDragRegion = config.getDragRegion();
+        mDragHandleId = config.getDragHandleId();
+        mPrefetchThreshold = config.getPrefetchThreshold();
+        mSettleDuration = config.getSettleDuration();
+        mSettleInterpolator = config.getSettleInterpolator();
+        mMotionProfile = config.getMotionProfile();
+        mFreezeContent = config.isFreezeContent();
+        mTouchSlop = config.getTouchSlop();
 
         init = true;
 
-        switch (mStickTo) {
-            case STICK_TO_TOP:
-            case STICK_TO_BOTTOM:
-                mScrollOrientation = scrollState.VERTICAL;
-                break;
-            case STICK_TO_LEFT:
-            case STICK_TO_RIGHT:
-                mScrollOrientation = scrollState.HORIZONTAL;
+        int layoutDirection = LAYOUT_DIRECTION_LTR;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            layoutDirection = getResources().getConfiguration().getLayoutDirection();
+        }
+        mEdge = DrawerEdge.forStickTo(mStickTo, layoutDirection);
+    }
+
+    @Override
+    protected void onFinishInflate() {
+        super.onFinishInflate();
+
+        if (mDragHandleId != NO_ID) {
+            mDragHandle = findViewById(mDragHandleId);
         }
     }
 
@@ -148,59 +436,107 @@ public class SlidingDrawer extends FrameLayout {
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
         super.onLayout(changed, l, t, r, b);
 
-        if (init) {
-            post(new Runnable() {
-                @Override
-                public void run() {
-                    notifyActionForState(mSlideState, false);
-                }
-            });
+        final View parent = (View) getParent();
+        if (init || getWidth() != mLastWidth || getHeight() != mLastHeight ||
+                parent.getWidth() != mLastParentWidth || parent.getHeight() != mLastParentHeight) {
 
+            mLastWidth = getWidth();
+            mLastHeight = getHeight();
+            mLastParentWidth = parent.getWidth();
+            mLastParentHeight = parent.getHeight();
+
+            //Margins were calculated for other sizes, re-snap without waiting for a touch
+            onGeometryChanged();
             init = false;
         }
     }
 
+    @Override
+    public void onRtlPropertiesChanged(int layoutDirection) {
+        super.onRtlPropertiesChanged(layoutDirection);
+
+        final DrawerEdge edge = DrawerEdge.forStickTo(mStickTo, layoutDirection);
+        if (edge != mEdge) {
+            //Start and end swapped sides, re-snap on the next layout
+            mEdge = edge;
+            init = true;
+            requestLayout();
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+
+        resolveMotionProfile();
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+
+        //Window metrics and configurations are shared by all drawers, resolve them again
+        invalidateWindowMetrics();
+        SlidingDrawerConfig.clearCache();
+        invalidateMotionSettings();
+        resolveMotionProfile();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        cancelPrefetch();
+    }
+
     @Override
     public boolean onInterceptTouchEvent(MotionEvent event) {
-        switch (event.getAction()) {
+        if (!SlidingDrawerTrace.isEnabled()) {
+            return interceptTouchEvent(event);
+        }
+
+        SlidingDrawerTrace.beginSection(TRACE_INTERCEPT);
+        try {
+            return interceptTouchEvent(event);
+        } finally {
+            SlidingDrawerTrace.endSection();
+        }
+    }
+
+    private boolean interceptTouchEvent(MotionEvent event) {
+        switch (event.getAction() & MotionEvent.ACTION_MASK) {
             case MotionEvent.ACTION_DOWN:
 
-                switch (mStickTo) {
-                    case STICK_TO_BOTTOM:
-                    case STICK_TO_TOP:
-                        mInitialCoordinate = event.getY();
-                        break;
-                    case STICK_TO_LEFT:
-                    case STICK_TO_RIGHT:
-                        mInitialCoordinate = event.getX();
-                        break;
+                mInitialX = event.getX();
+                mInitialY = event.getY();
+                mIsBeingDragged = false;
+                mIsUnableToDrag = !isInDragRegion(mInitialX, mInitialY);
+
+                if (mIsUnableToDrag) {
+                    //Touches outside of the drag region belong to the content
+                    return false;
                 }
+                startDrag(event);
                 break;
 
             case MotionEvent.ACTION_MOVE:
 
-                float coordinate = 0;
-                switch (mStickTo) {
-                    case STICK_TO_BOTTOM:
-                    case STICK_TO_TOP:
-                        coordinate = event.getY();
-
-                        break;
-                    case STICK_TO_LEFT:
-                    case STICK_TO_RIGHT:
-                        coordinate = event.getX();
-                        break;
+                if (mIsUnableToDrag) {
+                    return false;
                 }
 
-                final int diff = (int) Math.abs(coordinate - mInitialCoordinate);
-
                 //Verify that either difference is enough to be a drag
-                if (diff > mTouchSlop) {
+                if (checkDrag(event)) {
                     //Start capturing events
                     if (DEBUG) Log.d(TAG, "drag captured.");
                     return true;
                 }
                 break;
+
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+
+                removeCallbacks(mPeekRunnable);
+                break;
         }
 
         return super.onInterceptTouchEvent(event);
@@ -208,181 +544,210 @@ public class SlidingDrawer extends FrameLayout {
 
     @Override
     public boolean onTouchEvent(@NonNull MotionEvent event) {
+        if (!SlidingDrawerTrace.isEnabled() ||
+                (event.getAction() & MotionEvent.ACTION_MASK) != MotionEvent.ACTION_MOVE) {
+            return handleTouchEvent(event);
+        }
 
-        final View parent = (View) getParent();
-        final int coordinate;
-        final int distance = getDistance();
-        final int tapCoordinate;
-
-        switch (mStickTo) {
-            case STICK_TO_BOTTOM:
-                coordinate = (int) event.getRawY();
-                tapCoordinate = (int) event.getRawY();
-                break;
-
-            case STICK_TO_LEFT:
-                coordinate = parent.getWidth() - (int) event.getRawX();
-                tapCoordinate = (int) event.getRawX();
-                break;
-
-            case STICK_TO_RIGHT:
-                coordinate = (int) event.getRawX();
-                tapCoordinate = (int) event.getRawX();
-                break;
+        SlidingDrawerTrace.beginSection(TRACE_MOVE);
+        try {
+            return handleTouchEvent(event);
+        } finally {
+            SlidingDrawerTrace.endSection();
+        }
+    }
 
-            case STICK_TO_TOP:
-                coordinate = getRawDisplayHeight(getContext()) - (int) event.getRawY();
-                tapCoordinate = (int) event.getRawY();
-                break;
+    private boolean handleTouchEvent(MotionEvent event) {
 
-            default:
-                throw new IllegalStateException("Failed to initialize coordinates.");
-        }
+        final DrawerEdge edge = mEdge;
+        final int coordinate = edge.getTouchCoordinate(this, event);
+        final int distance = getDistance();
 
         switch (event.getAction() & MotionEvent.ACTION_MASK) {
             case MotionEvent.ACTION_DOWN:
 
-                switch (mStickTo) {
-                    case STICK_TO_BOTTOM:
-                        _delta = coordinate - ((RelativeLayout.LayoutParams)
-                                getLayoutParams()).topMargin;
-                        break;
-
-                    case STICK_TO_LEFT:
-                        _delta = coordinate - ((RelativeLayout.LayoutParams)
-                                getLayoutParams()).rightMargin;
-                        break;
-
-                    case STICK_TO_RIGHT:
-                        _delta = coordinate - ((RelativeLayout.LayoutParams)
-                                getLayoutParams()).leftMargin;
-                        break;
-
-                    case STICK_TO_TOP:
-                        _delta = coordinate - ((RelativeLayout.LayoutParams)
-                                getLayoutParams()).bottomMargin;
-                        break;
-                }
-
-                _lastCoordinate = coordinate;
-                _pressStartTime = System.currentTimeMillis();
+                mInitialX = event.getX();
+                mInitialY = event.getY();
+                mIsBeingDragged = false;
+                mIsUnableToDrag = !isInDragRegion(mInitialX, mInitialY);
 
+                if (mIsUnableToDrag) {
+                    //Not draggable, but still consumed so it does not reach the views behind
+                    break;
+                }
+                startDrag(event);
                 break;
 
             case MotionEvent.ACTION_MOVE:
 
+                if (mIsUnableToDrag || (!mIsBeingDragged && !checkDrag(event))) {
+                    break;
+                }
+
+                if (mReducedMotion && Math.abs(coordinate - mLastDragCoordinate) < mTouchSlop / 2) {
+                    //Relayout in coarser steps to save frame time
+                    break;
+                }
+                mLastDragCoordinate = coordinate;
+
                 RelativeLayout.LayoutParams layoutParams = (RelativeLayout.LayoutParams)
                         getLayoutParams();
 
                 final int farMargin = coordinate - _delta;
                 final int closeMargin = distance - farMargin;
 
-                switch (mStickTo) {
-                    case STICK_TO_BOTTOM:
-                        if (farMargin > distance &&
-                                closeMargin > mOffsetDistance - getHeight()) {
-                            layoutParams.bottomMargin = closeMargin;
-                            layoutParams.topMargin = farMargin;
-                        }
-                        break;
-                    case STICK_TO_LEFT:
-                        if (farMargin > distance &&
-                                closeMargin > mOffsetDistance - getWidth()) {
-                            layoutParams.leftMargin = closeMargin;
-                            layoutParams.rightMargin = farMargin;
-                        }
-                        break;
-                    case STICK_TO_RIGHT:
-                        if (farMargin > distance &&
-                                closeMargin > mOffsetDistance - getWidth()) {
-                            layoutParams.rightMargin = closeMargin;
-                            layoutParams.leftMargin = farMargin;
-                        }
-                        break;
-                    case STICK_TO_TOP:
-                        if (farMargin > distance &&
-                                closeMargin > mOffsetDistance - getHeight()) {
-                            layoutParams.topMargin = closeMargin;
-                            layoutParams.bottomMargin = farMargin;
-                        }
-                        break;
+                if (farMargin > distance &&
+                        closeMargin > mOffsetDistance - edge.getLength(this)) {
+                    edge.setMargins(layoutParams, closeMargin, farMargin);
                 }
                 setLayoutParams(layoutParams);
+
+                if (!mPrefetchRequested && getOpenFraction(closeMargin) >= mPrefetchThreshold) {
+                    requestPrefetch();
+                }
                 break;
 
             case MotionEvent.ACTION_UP:
 
+                removeCallbacks(mPeekRunnable);
+                if (mIsUnableToDrag || mTransition != null) {
+                    //A transition keeps the drawer until it is dragged
+                    break;
+                }
+
                 final int diff = coordinate - _lastCoordinate;
                 final long pressDuration = System.currentTimeMillis() - _pressStartTime;
 
-                switch (mStickTo) {
-                    case STICK_TO_BOTTOM:
-                        if (isClicked(getContext(), diff, pressDuration)) {
-                            if (tapCoordinate > parent.getHeight() - mOffsetDistance &&
-                                    mSlideState == PanelState.CLOSE) {
-                                notifyActionAndAnimateForState(PanelState.OPEN, getHeight() - mOffsetDistance, true);
-                            } else if (Math.abs(getRawDisplayHeight(getContext()) -
-                                    tapCoordinate - getHeight()) < mOffsetDistance &&
-                                    mSlideState == PanelState.OPEN) {
-                                notifyActionAndAnimateForState(PanelState.CLOSE, getHeight() - mOffsetDistance, true);
-                            }
-                        } else {
-                            smoothScrollToAndNotify(diff);
-                        }
-
-                        break;
-
-                    case STICK_TO_TOP:
-                        if (isClicked(getContext(), diff, pressDuration)) {
-                            final int y = getLocationInYAxis(this);
-                            if (tapCoordinate - Math.abs(y) <= mOffsetDistance &&
-                                    mSlideState == PanelState.CLOSE) {
-                                notifyActionAndAnimateForState(PanelState.OPEN, getHeight() - mOffsetDistance, true);
-                            } else if (getHeight() - (tapCoordinate - Math.abs(y)) < mOffsetDistance &&
-                                    mSlideState == PanelState.OPEN) {
-                                notifyActionAndAnimateForState(PanelState.CLOSE, getHeight() - mOffsetDistance, true);
-                            }
-                        } else {
-                            smoothScrollToAndNotify(diff);
-                        }
-
-                        break;
-
-                    case STICK_TO_LEFT:
-                        if (isClicked(getContext(), diff, pressDuration)) {
-                            if (tapCoordinate <= mOffsetDistance &&
-                                    mSlideState == PanelState.CLOSE) {
-                                notifyActionAndAnimateForState(PanelState.OPEN, getWidth() - mOffsetDistance, true);
-                            } else if (tapCoordinate > getWidth() - mOffsetDistance &&
-                                    mSlideState == PanelState.OPEN) {
-                                notifyActionAndAnimateForState(PanelState.CLOSE, getWidth() - mOffsetDistance, true);
-                            }
-                        } else {
-                            smoothScrollToAndNotify(diff);
-                        }
-
-                        break;
-
-                    case STICK_TO_RIGHT:
-                        if (isClicked(getContext(), diff, pressDuration)) {
-                            if (parent.getWidth() - tapCoordinate <= mOffsetDistance &&
-                                    mSlideState == PanelState.CLOSE) {
-                                notifyActionAndAnimateForState(PanelState.OPEN, getWidth() - mOffsetDistance, true);
-                            } else if (parent.getWidth() - tapCoordinate > getWidth() - mOffsetDistance &&
-                                    mSlideState == PanelState.OPEN) {
-                                notifyActionAndAnimateForState(PanelState.CLOSE, getWidth() - mOffsetDistance, true);
-                            }
-                        } else {
-                            smoothScrollToAndNotify(diff);
-                        }
-
-                        break;
+                if (isClicked(this, diff, pressDuration)) {
+                    final int tapCoordinate = edge.getTapCoordinate(event);
+                    if (mSlideState == PanelState.CLOSE &&
+                            edge.isOpenTap(this, tapCoordinate, mOffsetDistance)) {
+                        notifyActionAndAnimateForState(PanelState.OPEN,
+                                getTranslationFor(PanelState.OPEN), true);
+                    } else if (mSlideState == PanelState.OPEN &&
+                            edge.isCloseTap(this, tapCoordinate, mOffsetDistance)) {
+                        notifyActionAndAnimateForState(PanelState.CLOSE,
+                                getTranslationFor(PanelState.CLOSE), true);
+                    }
+                } else {
+                    smoothScrollToAndNotify(diff);
+                }
+
+                if (mDragState == DragState.DRAGGING) {
+                    //Released without anything to settle
+                    setDragState(DragState.IDLE);
+                }
+                break;
+
+            case MotionEvent.ACTION_CANCEL:
+
+                removeCallbacks(mPeekRunnable);
+                if (mIsBeingDragged) {
+                    notifyActionAndAnimateForState(mSlideState,
+                            getTranslationFor(mSlideState), false);
                 }
                 break;
         }
         return true;
     }
 
+    /**
+     * Returns whether a gesture starting at the given local coordinates may drag the
+     * drawer, according to the drag handle or the drag region.
+     */
+    private boolean isInDragRegion(float x, float y) {
+        if (mDragHandle != null) {
+            if (mDragHandle.getVisibility() != VISIBLE) {
+                return false;
+            }
+            mDragHandle.getDrawingRect(mTempRect);
+            offsetDescendantRectToMyCoords(mDragHandle, mTempRect);
+            return mTempRect.contains((int) x, (int) y);
+        }
+
+        return mDragRegion == DRAG_REGION_DRAWER ||
+                mEdge.isInOffsetStrip(this, x, y, mOffsetDistance);
+    }
+
+    /**
+     * Decides whether the current gesture is a drag along the sliding axis. A gesture
+     * which first passes the touch slop across the sliding axis is abandoned.
+     *
+     * @return true if the drawer shall start dragging
+     */
+    private boolean checkDrag(MotionEvent event) {
+        final float dx = Math.abs(event.getX() - mInitialX);
+        final float dy = Math.abs(event.getY() - mInitialY);
+
+        final boolean vertical = mEdge.isVertical();
+        final float along = vertical ? dy : dx;
+        final float across = vertical ? dx : dy;
+
+        if (across > mTouchSlop && across > along) {
+            if (DEBUG) Log.d(TAG, "off-axis gesture abandoned.");
+            mIsUnableToDrag = true;
+            removeCallbacks(mPeekRunnable);
+            return false;
+        }
+
+        if (along > mTouchSlop) {
+            //From here on the prefetch threshold decides
+            removeCallbacks(mPeekRunnable);
+            takeOverFromAnimation(event);
+            mIsBeingDragged = true;
+            setDragState(DragState.DRAGGING);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remembers where a drag started, relative to the current margins of the drawer.
+     */
+    private void startDrag(MotionEvent event) {
+        //Battery saver and the animator scale change without a configuration change
+        resolveMotionProfile();
+
+        if (mDragState != DragState.SETTLING) {
+            //A running settle animation or transition still owns the translation
+            commitOffset();
+        }
+
+        final int coordinate = mEdge.getTouchCoordinate(this, event);
+        final RelativeLayout.LayoutParams params = (RelativeLayout.LayoutParams)
+                getLayoutParams();
+
+        _delta = coordinate - mEdge.getFarMargin(params);
+
+        _lastCoordinate = coordinate;
+        _pressStartTime = System.currentTimeMillis();
+        mLastDragCoordinate = coordinate;
+
+        if (mSlideState == PanelState.CLOSE && !mPrefetchRequested &&
+                mOnPrefetchListener != null) {
+            //Holding the closed drawer without dragging peeks into it
+            removeCallbacks(mPeekRunnable);
+            postDelayed(mPeekRunnable, ViewConfiguration.getLongPressTimeout());
+        }
+    }
+
+    /**
+     * Stops a settle animation, offset animation or transition once a drag is confirmed,
+     * so the drag continues from where the drawer is shown. Taps leave them running.
+     */
+    private void takeOverFromAnimation(MotionEvent event) {
+        if (mDragState != DragState.SETTLING) {
+            return;
+        }
+
+        cancelSettle();
+        commitOffset();
+
+        final RelativeLayout.LayoutParams params = (RelativeLayout.LayoutParams)
+                getLayoutParams();
+        _delta = mEdge.getTouchCoordinate(this, event) - mEdge.getFarMargin(params);
+    }
+
     private void smoothScrollToAndNotify(int diff) {
 
         int length = getLength();
@@ -407,268 +772,162 @@ public class SlidingDrawer extends FrameLayout {
         }
     }
 
+    /**
+     * Returns the translation towards the opened state that moves the drawer from its
+     * current margins into the given state.
+     */
     private int getTranslationFor(PanelState stateToApply) {
-        switch (mStickTo) {
-
-            case STICK_TO_BOTTOM:
-
-                switch (stateToApply) {
-                    case OPEN:
-                        return getHeight() - (getRawDisplayHeight(getContext()) - getLocationInYAxis(this));
-
-                    case CLOSE:
-                        return getRawDisplayHeight(getContext()) - getLocationInYAxis(this) - mOffsetDistance;
-                }
-                break;
-
-            case STICK_TO_TOP:
-
-                final int actionBarDiff = getRawDisplayHeight(getContext()) - ((View) getParent()).getHeight();
-                final int y = getLocationInYAxis(this) + getHeight();
-
-                switch (stateToApply) {
-                    case OPEN:
-                        return getHeight() - y + actionBarDiff;
-
-                    case CLOSE:
-                        return y - mOffsetDistance - actionBarDiff;
-                }
-                break;
+        final RelativeLayout.LayoutParams params = (RelativeLayout.LayoutParams)
+                getLayoutParams();
+        return getEdgeMarginFor(stateToApply) - mEdge.getEdgeMargin(params);
+    }
 
-            case STICK_TO_LEFT:
+    /**
+     * Returns the margin of the edge the drawer sticks to in the given state.
+     */
+    private int getEdgeMarginFor(PanelState state) {
+        return state == PanelState.OPEN ? 0 : mOffsetDistance - getLength();
+    }
 
-                final int x = getLocationInXAxis(this) + getWidth();
+    private void notifyActionAndAnimateForState(PanelState stateToApply,
+                                                int translation, boolean notify) {
+        if (!SlidingDrawerTrace.isEnabled()) {
+            settleToState(stateToApply, translation, notify);
+            return;
+        }
 
-                switch (stateToApply) {
-                    case OPEN:
-                        return getWidth() - x;
-                    case CLOSE:
-                        return x - mOffsetDistance;
-                }
-                break;
+        SlidingDrawerTrace.beginSection(TRACE_SETTLE_START);
+        try {
+            settleToState(stateToApply, translation, notify);
+        } finally {
+            SlidingDrawerTrace.endSection();
+        }
+    }
 
-            case STICK_TO_RIGHT:
+    private void settleToState(final PanelState stateToApply,
+                               final int translation, final boolean notify) {
+        resolveMotionProfile();
+        mTransition = null;
+        mSettleListener.setTarget(stateToApply, notify);
+        setDragState(DragState.SETTLING);
 
-                switch (stateToApply) {
-                    case OPEN:
-                        return getWidth() - (getRawDisplayWidth(getContext()) - getLocationInXAxis(this));
-                    case CLOSE:
-                        return getRawDisplayWidth(getContext()) - getLocationInXAxis(this) - mOffsetDistance;
-                }
-                break;
+        if (stateToApply == PanelState.OPEN) {
+            requestPrefetch();
         }
-        throw new IllegalStateException("Failed to return translation for drawer.");
-    }
-
-    private void notifyActionAndAnimateForState(final PanelState stateToApply,
-                                                final int translation, final boolean notify) {
-        switch (mStickTo) {
-            case STICK_TO_BOTTOM:
-                switch (stateToApply) {
-                    case OPEN:
-                        animate()
-                                .translationY(-translation)
-                                .setDuration(TRANSLATION_ANIM_DURATION)
-                                .setInterpolator(new DecelerateInterpolator())
-                                .setListener(new AnimatorListenerAdapter() {
-                                    @Override
-                                    public void onAnimationEnd(Animator animation) {
-                                        super.onAnimationEnd(animation);
-                                        notifyActionForState(stateToApply, notify);
-                                        setTranslationY(0);
-                                    }
-                                });
-
-                        break;
-                    case CLOSE:
-                        animate()
-                                .translationY(translation)
-                                .setDuration(TRANSLATION_ANIM_DURATION)
-                                .setInterpolator(new DecelerateInterpolator())
-                                .setListener(new AnimatorListenerAdapter() {
-                                    @Override
-                                    public void onAnimationEnd(Animator animation) {
-                                        super.onAnimationEnd(animation);
-                                        notifyActionForState(stateToApply, notify);
-                                        setTranslationY(0);
-                                    }
-                                });
-                        break;
-                }
-                break;
-
-            case STICK_TO_TOP:
-                switch (stateToApply) {
-                    case OPEN:
-                        animate()
-                                .translationY(translation)
-                                .setDuration(TRANSLATION_ANIM_DURATION)
-                                .setInterpolator(new DecelerateInterpolator())
-                                .setListener(new AnimatorListenerAdapter() {
-                                    @Override
-                                    public void onAnimationEnd(Animator animation) {
-                                        super.onAnimationEnd(animation);
-                                        notifyActionForState(stateToApply, notify);
-                                        setTranslationY(0);
-                                    }
-                                });
-                        break;
-                    case CLOSE:
-                        animate()
-                                .translationY(-translation)
-                                .setDuration(TRANSLATION_ANIM_DURATION)
-                                .setInterpolator(new DecelerateInterpolator())
-                                .setListener(new AnimatorListenerAdapter() {
-                                    @Override
-                                    public void onAnimationEnd(Animator animation) {
-                                        super.onAnimationEnd(animation);
-                                        notifyActionForState(stateToApply, notify);
-                                        setTranslationY(0);
-                                    }
-                                });
-                        break;
-                }
-                break;
 
-            case STICK_TO_LEFT:
-                switch (stateToApply) {
-                    case OPEN:
-                        animate()
-                                .translationX(translation)
-                                .setDuration(TRANSLATION_ANIM_DURATION)
-                                .setInterpolator(new DecelerateInterpolator())
-                                .setListener(new AnimatorListenerAdapter() {
-                                    @Override
-                                    public void onAnimationEnd(Animator animation) {
-                                        super.onAnimationEnd(animation);
-                                        notifyActionForState(stateToApply, notify);
-                                        setTranslationX(0);
-                                    }
-                                });
-                        break;
-                    case CLOSE:
-                        animate()
-                                .translationX(-translation)
-                                .setDuration(TRANSLATION_ANIM_DURATION)
-                                .setInterpolator(new DecelerateInterpolator())
-                                .setListener(new AnimatorListenerAdapter() {
-                                    @Override
-                                    public void onAnimationEnd(Animator animation) {
-                                        super.onAnimationEnd(animation);
-                                        notifyActionForState(stateToApply, notify);
-                                        setTranslationX(0);
-                                    }
-                                });
-                        break;
-                }
-                break;
+        final int duration = getSettleDuration();
+        if (duration == 0) {
+            //Skip the animation pipeline altogether
+            cancelSettle();
+            setTranslationX(0);
+            setTranslationY(0);
+            notifyActionForState(stateToApply, notify);
+            setDragState(DragState.IDLE);
+            return;
+        }
 
-            case STICK_TO_RIGHT:
-                switch (stateToApply) {
-                    case OPEN:
-                        animate()
-                                .translationX(-translation)
-                                .setDuration(TRANSLATION_ANIM_DURATION)
-                                .setInterpolator(new DecelerateInterpolator())
-                                .setListener(new AnimatorListenerAdapter() {
-                                    @Override
-                                    public void onAnimationEnd(Animator animation) {
-                                        super.onAnimationEnd(animation);
-                                        notifyActionForState(stateToApply, notify);
-                                        setTranslationX(0);
-                                    }
-                                });
-                        break;
-                    case CLOSE:
-                        animate()
-                                .translationX(translation)
-                                .setDuration(TRANSLATION_ANIM_DURATION)
-                                .setInterpolator(new DecelerateInterpolator())
-                                .setListener(new AnimatorListenerAdapter() {
-                                    @Override
-                                    public void onAnimationEnd(Animator animation) {
-                                        super.onAnimationEnd(animation);
-                                        notifyActionForState(stateToApply, notify);
-                                        setTranslationX(0);
-                                    }
-                                });
-                        break;
-                }
-                break;
+        final ViewPropertyAnimator animator = animate();
+        if (!mReducedMotion && !mContentFrozen &&
+                Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            //A frozen content already renders into its own layer
+            animator.withLayer();
         }
+
+        animator.setDuration(duration)
+                .setInterpolator(mSettleInterpolator)
+                .setListener(mSettleListener);
+        mEdge.animateEdgeTranslation(animator, translation);
     }
 
     private void notifyActionForState(PanelState stateToApply, boolean notify) {
 
-        final int distance = getDistance();
+        final boolean trace = SlidingDrawerTrace.isEnabled();
+        if (trace) SlidingDrawerTrace.beginSection(TRACE_NOTIFY);
+
         RelativeLayout.LayoutParams params = (RelativeLayout.LayoutParams)
                 getLayoutParams();
 
-        switch (mStickTo) {
-            case STICK_TO_BOTTOM:
-
-                switch (stateToApply) {
-                    case OPEN:
-                        params.bottomMargin = 0;
-                        params.topMargin = distance;
-                        break;
-                    case CLOSE:
-                        params.bottomMargin = mOffsetDistance - getHeight();
-                        params.topMargin = distance - (mOffsetDistance - getHeight());
-                        break;
-                }
+        applyMarginsForState(params, stateToApply);
 
-                break;
+        if (stateToApply == PanelState.CLOSE) {
+            //Prefetch again on the next approach
+            mPrefetchRequested = false;
+        }
+        if (notify) {
+            notifyActionFinished(stateToApply);
+        }
+        setLayoutParams(params);
 
-            case STICK_TO_LEFT:
-
-                switch (stateToApply) {
-                    case OPEN:
-                        params.leftMargin = 0;
-                        params.rightMargin = distance;
-                        break;
-                    case CLOSE:
-                        params.leftMargin = mOffsetDistance - getWidth();
-                        params.rightMargin = distance - (mOffsetDistance - getWidth());
-                        break;
-                }
+        if (trace) SlidingDrawerTrace.endSection();
+    }
 
-                break;
+    /**
+     * Sets the margins that keep the drawer in the given state, for the current size of
+     * the drawer and its parent. Does not request a layout.
+     */
+    private void applyMarginsForState(RelativeLayout.LayoutParams params, PanelState stateToApply) {
 
-            case STICK_TO_RIGHT:
-
-                switch (stateToApply) {
-                    case OPEN:
-                        params.rightMargin = 0;
-                        params.leftMargin = distance;
-                        break;
-                    case CLOSE:
-                        params.rightMargin = mOffsetDistance - getWidth();
-                        params.leftMargin = distance - (mOffsetDistance - getWidth());
-                        break;
+        final int edgeMargin = getEdgeMarginFor(stateToApply);
+        mEdge.setMargins(params, edgeMargin, getDistance() - edgeMargin);
+    }
+
+    /**
+     * Puts the drawer into the given state from within {@link #onLayout}. The margins are
+     * updated in place and the frame is moved to where the parent places the drawer for
+     * these margins, so neither an animation nor a second layout pass is needed. This
+     * relies on the drawer being aligned to the parent edge it sticks to.
+     */
+    private void snapToStateInLayout(PanelState stateToApply) {
+        final RelativeLayout.LayoutParams params = (RelativeLayout.LayoutParams)
+                getLayoutParams();
+
+        applyMarginsForState(params, stateToApply);
+        mEdge.offsetToMargins(this, params);
+
+        if (stateToApply == PanelState.CLOSE) {
+            mPrefetchRequested = false;
+        }
+    }
+
+    /**
+     * Jumps into the current state, or into the target of a running settle animation,
+     * for the new size of the drawer or its parent.
+     */
+    private void onGeometryChanged() {
+        if (DEBUG) Log.d(TAG, "geometry changed, re-snapping.");
+
+        switch (mDragState) {
+            case SETTLING:
+                final PanelState stateToApply = mSettleListener.mStateToApply;
+                final boolean notify = mSettleListener.mNotify;
+
+                cancelSettle();
+                if (stateToApply == null) {
+                    //Offset animations stop where they are
+                    snapToStateInLayout(mSlideState);
+                    break;
                 }
+                setTranslationX(0);
+                setTranslationY(0);
 
+                snapToStateInLayout(stateToApply);
+                if (notify) {
+                    notifyActionFinished(stateToApply);
+                }
                 break;
 
-            case STICK_TO_TOP:
-
-                switch (stateToApply) {
-                    case OPEN:
-                        params.topMargin = 0;
-                        params.bottomMargin = distance;
-                        break;
-                    case CLOSE:
-                        params.topMargin = mOffsetDistance - getHeight();
-                        params.bottomMargin = distance - (mOffsetDistance - getHeight());
-                        break;
-                }
+            case DRAGGING:
+                //Abandon the drag, its coordinates are no longer valid
+                mIsBeingDragged = false;
+                mIsUnableToDrag = true;
+                snapToStateInLayout(mSlideState);
+                break;
 
+            default:
+                snapToStateInLayout(mSlideState);
                 break;
         }
-        if (notify) {
-            notifyActionFinished(stateToApply);
-        }
-        setLayoutParams(params);
+        setDragState(DragState.IDLE);
     }
 
     private void notifyActionFinished(PanelState state) {
@@ -676,14 +935,16 @@ public class SlidingDrawer extends FrameLayout {
         switch (state) {
             case OPEN:
                 mSlideState = PanelState.OPEN;
-                if (mOnInteractListener != null) {
-                    mOnInteractListener.onOpened();
+                final OnInteractListener[] openedListeners = mInteractListeners;
+                for (int i = 0; i < openedListeners.length; i++) {
+                    openedListeners[i].onOpened();
                 }
                 break;
             case CLOSE:
                 mSlideState = PanelState.CLOSE;
-                if (mOnInteractListener != null) {
-                    mOnInteractListener.onClosed();
+                final OnInteractListener[] closedListeners = mInteractListeners;
+                for (int i = 0; i < closedListeners.length; i++) {
+                    closedListeners[i].onClosed();
                 }
                 break;
         }
@@ -691,13 +952,40 @@ public class SlidingDrawer extends FrameLayout {
 
     /**
      * Sets the listener to be invoked after a switch change
-     * {@link OnInteractListener}.
+     * {@link OnInteractListener}. Replaces the listener of a previous call, but not the
+     * ones added with {@link #addOnInteractListener(OnInteractListener)}.
      *
      * @param listener Listener to set
      */
     @SuppressWarnings("unused")
     public void setOnInteractListener(OnInteractListener listener) {
+        mInteractListeners = removeListener(mInteractListeners, mOnInteractListener);
         mOnInteractListener = listener;
+        mInteractListeners = addListener(mInteractListeners, listener);
+    }
+
+    /**
+     * Adds a listener to be invoked after a switch change {@link OnInteractListener}.
+     * Adding a listener twice has no effect.
+     *
+     * @param listener Listener to add
+     */
+    @SuppressWarnings("unused")
+    public void addOnInteractListener(OnInteractListener listener) {
+        mInteractListeners = addListener(mInteractListeners, listener);
+    }
+
+    /**
+     * Removes a listener, which may be done from within one of its callbacks.
+     *
+     * @param listener Listener to remove
+     */
+    @SuppressWarnings("unused")
+    public void removeOnInteractListener(OnInteractListener listener) {
+        mInteractListeners = removeListener(mInteractListeners, listener);
+        if (listener == mOnInteractListener) {
+            mOnInteractListener = null;
+        }
     }
 
     @SuppressWarnings("unused")
@@ -708,6 +996,439 @@ public class SlidingDrawer extends FrameLayout {
         void onClosed();
     }
 
+    /**
+     * Sets the listener to be invoked whenever the drawer starts or stops moving
+     * {@link OnDragStateChangeListener}.
+     *
+     * @param listener Listener to set
+     */
+    @SuppressWarnings("unused")
+    public void setOnDragStateChangeListener(OnDragStateChangeListener listener) {
+        mDragStateListeners = removeListener(mDragStateListeners, mOnDragStateChangeListener);
+        mOnDragStateChangeListener = listener;
+        mDragStateListeners = addListener(mDragStateListeners, listener);
+    }
+
+    /**
+     * Adds a listener to be invoked whenever the drawer starts or stops moving
+     * {@link OnDragStateChangeListener}. Adding a listener twice has no effect.
+     *
+     * @param listener Listener to add
+     */
+    @SuppressWarnings("unused")
+    public void addOnDragStateChangeListener(OnDragStateChangeListener listener) {
+        mDragStateListeners = addListener(mDragStateListeners, listener);
+    }
+
+    /**
+     * Removes a listener, which may be done from within one of its callbacks.
+     *
+     * @param listener Listener to remove
+     */
+    @SuppressWarnings("unused")
+    public void removeOnDragStateChangeListener(OnDragStateChangeListener listener) {
+        mDragStateListeners = removeListener(mDragStateListeners, listener);
+        if (listener == mOnDragStateChangeListener) {
+            mOnDragStateChangeListener = null;
+        }
+    }
+
+    /**
+     * Callback for changes of the {@link DragState}. Heavy work of the app, like video
+     * previews or live updating lists, can be paused when the drawer leaves
+     * {@link DragState#IDLE} and resumed when it returns to it.
+     */
+    @SuppressWarnings("unused")
+    public interface OnDragStateChangeListener {
+
+        void onDragStateChanged(DragState state);
+    }
+
+    /**
+     * Sets the listener to be invoked when the content of the drawer should be
+     * prepared for opening {@link OnPrefetchListener}.
+     *
+     * @param listener Listener to set
+     */
+    @SuppressWarnings("unused")
+    public void setOnPrefetchListener(OnPrefetchListener listener) {
+        mOnPrefetchListener = listener;
+    }
+
+    /**
+     * Sets the executor the {@link OnPrefetchListener} is invoked on. By default, or if
+     * null, it is invoked on the UI thread as soon as its message queue is idle.
+     */
+    @SuppressWarnings("unused")
+    public void setPrefetchExecutor(Executor executor) {
+        mPrefetchExecutor = executor;
+    }
+
+    /**
+     * Sets how far a drag has to open the drawer before its content is prefetched.
+     *
+     * @param fraction fraction of the way from closed to opened, in [0, 1]
+     */
+    @SuppressWarnings("unused")
+    public void setPrefetchThreshold(float fraction) {
+        if (fraction < 0f || fraction > 1f) {
+            throw new IllegalArgumentException("Prefetch threshold must be in [0, 1].");
+        }
+        mPrefetchThreshold = fraction;
+    }
+
+    /**
+     * Callback to warm up the content of a closed drawer, e.g. to load images or fill
+     * an adapter, so that it is ready by the time the drawer is opened. Invoked once
+     * when the user holds the closed drawer for a long press without dragging it, when
+     * a drag or {@link #setOffset(float)} passes the prefetch threshold, or when the
+     * drawer starts opening, whichever comes first; and again only after the drawer was
+     * closed.
+     */
+    @SuppressWarnings("unused")
+    public interface OnPrefetchListener {
+
+        /**
+         * Invoked on the prefetch executor if one is set, on the idle UI thread otherwise.
+         */
+        void onPrefetch(SlidingDrawer drawer);
+    }
+
+    /**
+     * Drops a pending peek or idle prefetch, so that the next prefetch is requested
+     * again, e.g. for a recycled drawer bound to another item.
+     */
+    private void cancelPrefetch() {
+        removeCallbacks(mPeekRunnable);
+        if (mPrefetchIdlePending) {
+            Looper.myQueue().removeIdleHandler(mPrefetchIdleHandler);
+            mPrefetchIdlePending = false;
+        }
+        mPrefetchRequested = false;
+    }
+
+    private void requestPrefetch() {
+        if (mPrefetchRequested || mOnPrefetchListener == null) {
+            return;
+        }
+
+        mPrefetchRequested = true;
+        if (mPrefetchExecutor != null) {
+            mPrefetchExecutor.execute(mPrefetchRunnable);
+        } else if (!mPrefetchIdlePending) {
+            mPrefetchIdlePending = true;
+            Looper.myQueue().addIdleHandler(mPrefetchIdleHandler);
+        }
+    }
+
+    /**
+     * Returns how far the drawer is opened for the given margin of its sticky edge.
+     */
+    private float getOpenFraction(int edgeMargin) {
+        final int range = getLength() - mOffsetDistance;
+        if (range <= 0) {
+            return 1f;
+        }
+        return (float) (edgeMargin + range) / range;
+    }
+
+    @SuppressWarnings("unused")
+    public DragState getDragState() {
+        return mDragState;
+    }
+
+    private void setDragState(DragState state) {
+        if (mDragState == state) {
+            return;
+        }
+
+        if (DEBUG) Log.d(TAG, "drag state " + state);
+        mDragState = state;
+        traceDragState(state);
+
+        if (state == DragState.IDLE) {
+            thawContent();
+        } else if (mFreezeContent) {
+            freezeContent();
+        }
+        final OnDragStateChangeListener[] listeners = mDragStateListeners;
+        for (int i = 0; i < listeners.length; i++) {
+            listeners[i].onDragStateChanged(state);
+        }
+    }
+
+    @Override
+    public ViewParent invalidateChildInParent(int[] location, Rect dirty) {
+        if (mContentFrozen) {
+            //Redrawn once the drawer comes to rest
+            mInvalidationDeferred = true;
+            return null;
+        }
+        return super.invalidateChildInParent(location, dirty);
+    }
+
+    /**
+     * Stops redrawing the content while the drawer moves. Unless motion is reduced, the
+     * drawer is moved as a hardware layer while frozen. Has no effect from Android O on,
+     * where a layer would be redrawn for every child invalidation anyway.
+     */
+    private void freezeContent() {
+        if (mContentFrozen || Build.VERSION.SDK_INT >= VERSION_CODE_O) {
+            return;
+        }
+
+        mContentFrozen = true;
+        if (!mReducedMotion && getLayerType() != LAYER_TYPE_HARDWARE) {
+            mFrozenLayerType = getLayerType();
+            mFrozenWithLayer = true;
+            setLayerType(LAYER_TYPE_HARDWARE, null);
+        }
+    }
+
+    /**
+     * Restores the layer type and flushes the invalidations deferred while frozen with a
+     * single redraw.
+     */
+    private void thawContent() {
+        if (!mContentFrozen) {
+            return;
+        }
+
+        mContentFrozen = false;
+        if (mFrozenWithLayer) {
+            mFrozenWithLayer = false;
+            setLayerType(mFrozenLayerType, null);
+        }
+        if (mInvalidationDeferred) {
+            mInvalidationDeferred = false;
+            invalidate();
+        }
+    }
+
+    /**
+     * Ends the async trace section of the previous drag state and begins the one of the
+     * new state, so a trace shows whole gestures and settle animations as slices.
+     */
+    private void traceDragState(DragState state) {
+        if (mTraceAsyncSection != null) {
+            SlidingDrawerTrace.endAsyncSection(mTraceAsyncSection, mTraceCookie);
+            mTraceAsyncSection = null;
+        }
+
+        if (!SlidingDrawerTrace.isEnabled()) {
+            return;
+        }
+        switch (state) {
+            case DRAGGING:
+                mTraceAsyncSection = TRACE_ASYNC_GESTURE;
+                break;
+            case SETTLING:
+                mTraceAsyncSection = TRACE_ASYNC_SETTLE;
+                break;
+            default:
+                return;
+        }
+        SlidingDrawerTrace.beginAsyncSection(mTraceAsyncSection, mTraceCookie);
+    }
+
+    /**
+     * Returns a copy of the listeners with the given one appended, or the same array if
+     * the listener is null or already contained.
+     */
+    private static <T> T[] addListener(T[] listeners, T listener) {
+        if (listener == null || indexOf(listeners, listener) >= 0) {
+            return listeners;
+        }
+
+        final T[] result = Arrays.copyOf(listeners, listeners.length + 1);
+        result[listeners.length] = listener;
+        return result;
+    }
+
+    /**
+     * Returns a copy of the listeners without the given one, or the same array if the
+     * listener is not contained.
+     */
+    private static <T> T[] removeListener(T[] listeners, T listener) {
+        final int index = indexOf(listeners, listener);
+        if (index < 0) {
+            return listeners;
+        }
+
+        final T[] result = Arrays.copyOf(listeners, listeners.length - 1);
+        System.arraycopy(listeners, index + 1, result, index, listeners.length - index - 1);
+        return result;
+    }
+
+    private static <T> int indexOf(T[] listeners, T listener) {
+        if (listener == null) {
+            return -1;
+        }
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Restricts drags to gestures that start inside the given child view. Touches
+     * elsewhere are left to the content of the drawer.
+     *
+     * @param dragHandle a descendant of this drawer, or null to use the drag region
+     */
+    @SuppressWarnings("unused")
+    public void setDragHandle(View dragHandle) {
+        mDragHandle = dragHandle;
+        mDragHandleId = dragHandle != null ? dragHandle.getId() : NO_ID;
+    }
+
+    /**
+     * Sets the region in which a drag may start when no drag handle is set.
+     *
+     * @param dragRegion {@link #DRAG_REGION_DRAWER} or {@link #DRAG_REGION_OFFSET}
+     */
+    @SuppressWarnings("unused")
+    public void setDragRegion(int dragRegion) {
+        mDragRegion = dragRegion;
+    }
+
+    /**
+     * Sets the duration of the animation that settles the drawer into a state.
+     *
+     * @param duration duration in milliseconds
+     */
+    @SuppressWarnings("unused")
+    public void setSettleDuration(int duration) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("Settle duration cannot be negative.");
+        }
+        mSettleDuration = duration;
+    }
+
+    /**
+     * Sets one of the predefined curves of the settle animation.
+     *
+     * @param curve {@link #SETTLE_CURVE_DECELERATE}, {@link #SETTLE_CURVE_ACCELERATE_DECELERATE},
+     *              {@link #SETTLE_CURVE_LINEAR} or {@link #SETTLE_CURVE_FAST_OUT_SLOW_IN}
+     */
+    @SuppressWarnings("unused")
+    public void setSettleCurve(int curve) {
+        mSettleInterpolator = getSettleInterpolator(curve);
+    }
+
+    /**
+     * Sets a cubic bezier curve for the settle animation, with the given control
+     * points. The curve is shared with all drawers using the same control points.
+     */
+    @SuppressWarnings("unused")
+    public void setSettleCurve(float x1, float y1, float x2, float y2) {
+        mSettleInterpolator = LookupTableInterpolator.cubicBezier(x1, y1, x2, y2);
+    }
+
+    /**
+     * Sets the interpolator of the settle animation. It is evaluated on every frame, so
+     * prefer a shared {@link LookupTableInterpolator} for anything but trivial curves.
+     */
+    @SuppressWarnings("unused")
+    public void setSettleInterpolator(@NonNull Interpolator interpolator) {
+        mSettleInterpolator = interpolator;
+    }
+
+    /**
+     * Sets the motion profile of the drawer.
+     *
+     * @param motionProfile {@link #MOTION_PROFILE_AUTO}, {@link #MOTION_PROFILE_FULL} or
+     *                      {@link #MOTION_PROFILE_REDUCED}
+     */
+    @SuppressWarnings("unused")
+    public void setMotionProfile(int motionProfile) {
+        mMotionProfile = motionProfile;
+        resolveMotionProfile();
+    }
+
+    /**
+     * Freezes the content of the drawer while it is dragged or settles. Invalidations of
+     * children, e.g. of progress bars or tickers, are deferred and flushed with a single
+     * redraw once the drawer comes to rest. Only effective before Android O (API 26);
+     * from then on, hardware accelerated children invalidate past the drawer and the
+     * option has no effect.
+     *
+     * @param freezeContent true to freeze the content during motion
+     */
+    @SuppressWarnings("unused")
+    public void setFreezeContent(boolean freezeContent) {
+        mFreezeContent = freezeContent;
+        if (!freezeContent) {
+            thawContent();
+        } else if (mDragState != DragState.IDLE) {
+            freezeContent();
+        }
+    }
+
+    /**
+     * Returns whether the drawer currently runs with reduced motion.
+     */
+    @SuppressWarnings("unused")
+    public boolean isReducedMotion() {
+        return mReducedMotion;
+    }
+
+    /**
+     * Resolves whether motion is reduced. Called whenever a drag, settle or transition
+     * starts, as battery saver and the animator duration scale can change without a
+     * configuration change. The device settings are cached, which keeps this cheap.
+     */
+    private void resolveMotionProfile() {
+        switch (mMotionProfile) {
+            case MOTION_PROFILE_FULL:
+                mReducedMotion = false;
+                break;
+            case MOTION_PROFILE_REDUCED:
+                mReducedMotion = true;
+                break;
+            default:
+                mReducedMotion = isReducedMotionPreferred(getContext());
+                break;
+        }
+    }
+
+    /**
+     * Returns the duration of the next settle animation for the motion profile.
+     */
+    private int getSettleDuration() {
+        return (int) getMotionDuration(mSettleDuration);
+    }
+
+    /**
+     * Returns the given animation duration for the last resolved motion profile:
+     * shortened under reduced motion, or 0 if animations are off as well.
+     */
+    long getMotionDuration(long duration) {
+        if (!mReducedMotion) {
+            return duration;
+        }
+        if (getAnimatorDurationScale(getContext()) == 0f) {
+            return 0;
+        }
+        return duration / REDUCED_MOTION_DURATION_DIVISOR;
+    }
+
+    static Interpolator getSettleInterpolator(int curve) {
+        switch (curve) {
+            case SETTLE_CURVE_DECELERATE:
+                return LookupTableInterpolator.decelerate();
+            case SETTLE_CURVE_ACCELERATE_DECELERATE:
+                return LookupTableInterpolator.accelerateDecelerate();
+            case SETTLE_CURVE_LINEAR:
+                return LookupTableInterpolator.linear();
+            case SETTLE_CURVE_FAST_OUT_SLOW_IN:
+                return LookupTableInterpolator.fastOutSlowIn();
+        }
+        throw new IllegalArgumentException("Unknown settle curve: " + curve);
+    }
+
     public boolean isOpened() {
         return mSlideState == PanelState.OPEN;
     }
@@ -716,41 +1437,301 @@ public class SlidingDrawer extends FrameLayout {
         return mSlideState == PanelState.CLOSE;
     }
 
+    /**
+     * Moves the drawer to the given position between its closed and opened state. Only
+     * the translation of the drawer changes, so this can be driven on every frame, e.g.
+     * by a scrolling list or a coordinated transition, without any layout pass. The
+     * state reported by {@link #isOpened()} and the listeners stays the same; use
+     * {@link #openDrawer()} or {@link #closeDrawer()} to change it.
+     *
+     * @param fraction 0 for the closed position, 1 for the opened position
+     */
+    @SuppressWarnings("unused")
+    public void setOffset(float fraction) {
+        if (mDragState == DragState.SETTLING) {
+            cancelSettle();
+            setDragState(DragState.IDLE);
+        }
+
+        final int range = getLength() - mOffsetDistance;
+        if (range <= 0) {
+            return;
+        }
+        setEdgeTranslation((clampOffset(fraction) - getLayoutOffset()) * range);
+
+        if (!mPrefetchRequested && fraction >= mPrefetchThreshold) {
+            requestPrefetch();
+        }
+    }
+
+    /**
+     * Returns the current position of the drawer between its closed and opened state,
+     * including any drag, settle animation or offset set with {@link #setOffset(float)}.
+     *
+     * @return 0 for the closed position, 1 for the opened position
+     */
+    @SuppressWarnings("unused")
+    public float getOffset() {
+        final int range = getLength() - mOffsetDistance;
+        if (range <= 0) {
+            return isOpened() ? 1f : 0f;
+        }
+        return clampOffset(getLayoutOffset() + getEdgeTranslation() / range);
+    }
+
+    /**
+     * Animates the drawer to the given position between its closed and opened state,
+     * with the settle duration and curve. Like {@link #setOffset(float)} this only
+     * changes the translation of the drawer, not its state.
+     *
+     * @param fraction 0 for the closed position, 1 for the opened position
+     */
+    @SuppressWarnings("unused")
+    public void animateToOffset(float fraction) {
+        final int range = getLength() - mOffsetDistance;
+        if (range <= 0) {
+            return;
+        }
+
+        final float edgeTranslation = (clampOffset(fraction) - getLayoutOffset()) * range;
+        resolveMotionProfile();
+        final int duration = getSettleDuration();
+        if (duration == 0) {
+            setOffset(fraction);
+            return;
+        }
+
+        mTransition = null;
+        mSettleListener.setTarget(null, false);
+        setDragState(DragState.SETTLING);
+
+        final ViewPropertyAnimator animator = animate()
+                .setDuration(duration)
+                .setInterpolator(mSettleInterpolator)
+                .setListener(mSettleListener);
+        mEdge.animateEdgeTranslation(animator, edgeTranslation);
+    }
+
+    /**
+     * Stops the settle animation or transition of the drawer, if any, where it is.
+     */
+    private void cancelSettle() {
+        animate().cancel();
+        mTransition = null;
+    }
+
+    private static float clampOffset(float fraction) {
+        return Math.max(0f, Math.min(1f, fraction));
+    }
+
+    /**
+     * Returns the position between closed and opened that the margins alone put the
+     * drawer at, i.e. without its translation.
+     */
+    private float getLayoutOffset() {
+        final RelativeLayout.LayoutParams params = (RelativeLayout.LayoutParams)
+                getLayoutParams();
+        return clampOffset(getOpenFraction(mEdge.getEdgeMargin(params)));
+    }
+
+    /**
+     * Returns the translation of the drawer towards its opened state.
+     */
+    private float getEdgeTranslation() {
+        return mEdge.getEdgeTranslation(this);
+    }
+
+    private void setEdgeTranslation(float edgeTranslation) {
+        mEdge.setEdgeTranslation(this, edgeTranslation);
+    }
+
+    /**
+     * Moves a translation left by {@link #setOffset(float)} into the margins, so a drag
+     * can start from where the drawer is shown.
+     */
+    private void commitOffset() {
+        final float edgeTranslation = getEdgeTranslation();
+        if (edgeTranslation == 0) {
+            return;
+        }
+
+        final RelativeLayout.LayoutParams params = (RelativeLayout.LayoutParams)
+                getLayoutParams();
+        final int edgeMargin = mEdge.getEdgeMargin(params) + Math.round(edgeTranslation);
+        mEdge.setMargins(params, edgeMargin, getDistance() - edgeMargin);
+        setTranslationX(0);
+        setTranslationY(0);
+        setLayoutParams(params);
+    }
+
+    /**
+     * Instantly puts the drawer into the given state, without animation and without
+     * notifying the {@link OnInteractListener}. Any animation or pending state of a
+     * previous use is dropped, which makes it suitable for drawers recycled as list
+     * rows, e.g. from {@code onBindViewHolder}. Does not allocate.
+     *
+     * @param opened true to show the drawer opened, false to show it closed
+     */
+    @SuppressWarnings("unused")
+    public void resetDrawer(boolean opened) {
+        //Cancelling calls the settle listener, which ignores cancelled animations
+        cancelSettle();
+        cancelPrefetch();
+        setTranslationX(0);
+        setTranslationY(0);
+
+        mIsBeingDragged = false;
+        mIsUnableToDrag = false;
+        mSlideState = opened ? PanelState.OPEN : PanelState.CLOSE;
+        setDragState(DragState.IDLE);
+
+        if (getWidth() > 0 && getHeight() > 0 && getParent() != null) {
+            //Already measured, the margins are picked up by the pending layout
+            notifyActionForState(mSlideState, false);
+            init = false;
+        } else {
+            //Applied by the first layout
+            init = true;
+        }
+    }
+
     @SuppressWarnings("unused")
     public void openDrawer() {
-        notifyActionAndAnimateForState(PanelState.OPEN, getLength() - mOffsetDistance, !isOpened());
+        notifyActionAndAnimateForState(PanelState.OPEN, getTranslationFor(PanelState.OPEN),
+                !isOpened());
     }
 
     @SuppressWarnings("unused")
     public void closeDrawer() {
-        notifyActionAndAnimateForState(PanelState.CLOSE, getLength() - mOffsetDistance, !isClosed());
+        notifyActionAndAnimateForState(PanelState.CLOSE, getTranslationFor(PanelState.CLOSE),
+                !isClosed());
     }
 
-    private int getDistance() {
-        final View parent = (View) getParent();
+    /**
+     * Commits the state of the drawer at the end of a settle animation. A single
+     * instance is reused for all animations; cancelled animations are ignored. Without a
+     * state to apply, e.g. for {@link #animateToOffset(float)}, the translation is kept.
+     */
+    private final class SettleListener extends AnimatorListenerAdapter {
 
-        switch (mScrollOrientation) {
-            case VERTICAL:
-                return parent.getHeight() -
-                        parent.getPaddingTop() -
-                        parent.getPaddingBottom() -
-                        getHeight();
-            case HORIZONTAL:
-                return parent.getWidth() -
-                        parent.getPaddingLeft() -
-                        parent.getPaddingRight() -
-                        getWidth();
+        private PanelState mStateToApply;
+        private boolean mNotify;
+        private boolean mCanceled;
+
+        void setTarget(PanelState stateToApply, boolean notify) {
+            mStateToApply = stateToApply;
+            mNotify = notify;
+        }
+
+        @Override
+        public void onAnimationStart(Animator animation) {
+            mCanceled = false;
+        }
+
+        @Override
+        public void onAnimationCancel(Animator animation) {
+            mCanceled = true;
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            if (mCanceled) {
+                return;
+            }
+            if (mStateToApply == null) {
+                setDragState(DragState.IDLE);
+                return;
+            }
+
+            final boolean trace = SlidingDrawerTrace.isEnabled();
+            if (trace) SlidingDrawerTrace.beginSection(TRACE_SETTLE_END);
+
+            notifyActionForState(mStateToApply, mNotify);
+            setTranslationX(0);
+            setTranslationY(0);
+            setDragState(DragState.IDLE);
+
+            if (trace) SlidingDrawerTrace.endSection();
         }
-        throw new IllegalStateException("Scroll orientation is not initialized.");
     }
 
-    private int getLength() {
-        switch (mScrollOrientation) {
-            case VERTICAL:
-                return getHeight();
-            case HORIZONTAL:
-                return getWidth();
+    /**
+     * Returns the translation of the drawer towards its opened state, at which a
+     * transition starts.
+     */
+    float getTransitionTranslation() {
+        return getEdgeTranslation();
+    }
+
+    /**
+     * Hands the drawer over to a transition into the given state. A running drag,
+     * animation or previous transition is dropped. The motion profile is resolved, so
+     * the transition can shorten its duration with {@link #getMotionDuration(long)}.
+     *
+     * @return the translation towards the opened state at which the transition ends
+     */
+    float beginTransition(SlidingDrawerTransition transition, boolean open) {
+        final PanelState stateToApply = open ? PanelState.OPEN : PanelState.CLOSE;
+
+        resolveMotionProfile();
+        cancelSettle();
+        if (mDragState == DragState.DRAGGING) {
+            //Abandon the drag, the transition takes over
+            mIsBeingDragged = false;
+            mIsUnableToDrag = true;
+        }
+
+        mTransition = transition;
+        mSettleListener.setTarget(stateToApply, stateToApply != mSlideState);
+        setDragState(DragState.SETTLING);
+
+        if (open) {
+            requestPrefetch();
+        }
+        return getTranslationFor(stateToApply);
+    }
+
+    boolean isDrivenBy(SlidingDrawerTransition transition) {
+        return mTransition == transition;
+    }
+
+    void setTransitionTranslation(float edgeTranslation) {
+        mEdge.setEdgeTranslation(this, edgeTranslation);
+    }
+
+    /**
+     * Puts the drawer into the target state of its transition. The margins are updated
+     * in place without requesting a layout; the transition lays out the parent once for
+     * all of its drawers.
+     */
+    void commitTransition() {
+        final PanelState stateToApply = mSettleListener.mStateToApply;
+        final boolean notify = mSettleListener.mNotify;
+
+        mTransition = null;
+        setTranslationX(0);
+        setTranslationY(0);
+        snapToStateInLayout(stateToApply);
+        if (notify) {
+            notifyActionFinished(stateToApply);
         }
-        throw new IllegalStateException("Scroll orientation is not initialized.");
+        setDragState(DragState.IDLE);
+    }
+
+    /**
+     * Leaves the drawer where a cancelled transition stopped it.
+     */
+    void abandonTransition() {
+        mTransition = null;
+        commitOffset();
+        setDragState(DragState.IDLE);
+    }
+
+    private int getDistance() {
+        return mEdge.getDistance(this);
+    }
+
+    private int getLength() {
+        return mEdge.getLength(this);
     }
 }
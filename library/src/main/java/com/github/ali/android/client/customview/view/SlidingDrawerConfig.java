@@ -0,0 +1,384 @@
+package com.github.ali.android.client.customview.view;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.support.annotation.NonNull;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.animation.Interpolator;
+
+import com.github.ali.android.client.customview.R;
+import com.github.ali.android.client.customview.animation.LookupTableInterpolator;
+
+import java.util.HashMap;
+import java.util.WeakHashMap;
+
+/**
+ * Immutable configuration of a {@link SlidingDrawer}: the resolved values of its
+ * attributes plus the touch slop of the device.
+ * <p/>
+ * Drawers inflated with the same attribute values and theme share one instance, so the
+ * attributes are only resolved for the first of them, e.g. for the first of hundreds of
+ * list rows. Drawers created in code without attributes share the default configuration
+ * of their theme. A configuration can also be built programmatically with a
+ * {@link Builder} and applied with {@link SlidingDrawer#setConfig(SlidingDrawerConfig)}.
+ */
+public final class SlidingDrawerConfig {
+
+    /**
+     * Configurations resolved from attributes, by theme and attribute values. Only
+     * accessed while holding its lock.
+     */
+    private static final WeakHashMap<Resources.Theme, ThemeConfigs> sCache = new WeakHashMap<>();
+
+    /**
+     * Configurations resolved with one theme, valid for the resource configuration and
+     * density they were resolved for.
+     */
+    private static final class ThemeConfigs {
+
+        final HashMap<String, SlidingDrawerConfig> configs = new HashMap<>();
+
+        final Configuration configuration;
+
+        final float density;
+
+        ThemeConfigs(Resources resources) {
+            configuration = new Configuration(resources.getConfiguration());
+            density = resources.getDisplayMetrics().density;
+        }
+
+        boolean matches(Resources resources) {
+            //Themes survive configuration changes handled by the activity itself
+            return configuration.diff(resources.getConfiguration()) == 0 &&
+                    density == resources.getDisplayMetrics().density;
+        }
+    }
+
+    private final int mStickTo;
+    private final int mOffsetDistance;
+    private final int mDragRegion;
+    private final int mDragHandleId;
+    private final int mSettleDuration;
+    private final Interpolator mSettleInterpolator;
+    private final float mPrefetchThreshold;
+    private final int mMotionProfile;
+    private final boolean mFreezeContent;
+    private final int mTouchSlop;
+
+    private SlidingDrawerConfig(Builder builder) {
+        mStickTo = builder.mStickTo;
+        mOffsetDistance = builder.mOffsetDistance;
+        mDragRegion = builder.mDragRegion;
+        mDragHandleId = builder.mDragHandleId;
+        mSettleDuration = builder.mSettleDuration;
+        mSettleInterpolator = builder.mSettleInterpolator;
+        mPrefetchThreshold = builder.mPrefetchThreshold;
+        mMotionProfile = builder.mMotionProfile;
+        mFreezeContent = builder.mFreezeContent;
+        mTouchSlop = builder.mTouchSlop;
+    }
+
+    public int getStickTo() {
+        return mStickTo;
+    }
+
+    public int getOffsetDistance() {
+        return mOffsetDistance;
+    }
+
+    public int getDragRegion() {
+        return mDragRegion;
+    }
+
+    public int getDragHandleId() {
+        return mDragHandleId;
+    }
+
+    public int getSettleDuration() {
+        return mSettleDuration;
+    }
+
+    public Interpolator getSettleInterpolator() {
+        return mSettleInterpolator;
+    }
+
+    public float getPrefetchThreshold() {
+        return mPrefetchThreshold;
+    }
+
+    public int getMotionProfile() {
+        return mMotionProfile;
+    }
+
+    public boolean isFreezeContent() {
+        return mFreezeContent;
+    }
+
+    public int getTouchSlop() {
+        return mTouchSlop;
+    }
+
+    /**
+     * Returns a builder initialized with the values of this configuration.
+     */
+    @SuppressWarnings("unused")
+    public Builder buildUpon() {
+        return new Builder(this);
+    }
+
+    /**
+     * Returns the configuration for the given attributes, resolving it only if no
+     * drawer with the same attribute values was created with the same theme and
+     * resource configuration before.
+     */
+    public static SlidingDrawerConfig obtain(@NonNull Context context, AttributeSet attrs) {
+        final Resources.Theme theme = context.getTheme();
+        final Resources resources = context.getResources();
+        final String key = getCacheKey(attrs);
+
+        synchronized (sCache) {
+            ThemeConfigs themeConfigs = sCache.get(theme);
+            if (themeConfigs == null || !themeConfigs.matches(resources)) {
+                themeConfigs = new ThemeConfigs(resources);
+                sCache.put(theme, themeConfigs);
+            }
+
+            SlidingDrawerConfig config = themeConfigs.configs.get(key);
+            if (config == null) {
+                config = resolve(context, attrs);
+                themeConfigs.configs.put(key, config);
+            }
+            return config;
+        }
+    }
+
+    /**
+     * Drops all cached configurations, so they are resolved again on next access.
+     * Configurations are also resolved again when the resource configuration of their
+     * theme changed, so this only frees memory early.
+     */
+    public static void clearCache() {
+        synchronized (sCache) {
+            sCache.clear();
+        }
+    }
+
+    private static SlidingDrawerConfig resolve(Context context, AttributeSet attrs) {
+        final Builder builder = new Builder(context);
+
+        //get the attributes specified in attrs.xml using the name we included
+        TypedArray a = context.getTheme().obtainStyledAttributes(attrs,
+                R.styleable.SlidingLayer, 0, 0);
+
+        try {
+            builder.setStickTo(a.getInteger(R.styleable.SlidingLayer_stickTo,
+                    SlidingDrawer.STICK_TO_BOTTOM))
+                    .setOffsetDistance(a.getDimensionPixelSize(
+                            R.styleable.SlidingLayer_offsetDistance,
+                            SlidingDrawer.DEFAULT_SLIDING_LAYER_OFFSET))
+                    .setDragRegion(a.getInteger(R.styleable.SlidingLayer_dragRegion,
+                            SlidingDrawer.DRAG_REGION_DRAWER))
+                    .setDragHandleId(a.getResourceId(R.styleable.SlidingLayer_dragHandle,
+                            View.NO_ID))
+                    .setPrefetchThreshold(a.getFloat(R.styleable.SlidingLayer_prefetchThreshold,
+                            SlidingDrawer.DEFAULT_PREFETCH_THRESHOLD))
+                    .setSettleDuration(a.getInteger(R.styleable.SlidingLayer_settleDuration,
+                            SlidingDrawer.TRANSLATION_ANIM_DURATION))
+                    .setMotionProfile(a.getInteger(R.styleable.SlidingLayer_motionProfile,
+                            SlidingDrawer.MOTION_PROFILE_AUTO))
+                    .setFreezeContent(a.getBoolean(R.styleable.SlidingLayer_freezeContent,
+                            false));
+
+            final String settleBezier = a.getString(R.styleable.SlidingLayer_settleBezier);
+            if (settleBezier != null) {
+                builder.setSettleInterpolator(LookupTableInterpolator.cubicBezier(settleBezier));
+            } else {
+                builder.setSettleInterpolator(SlidingDrawer.getSettleInterpolator(a.getInteger(
+                        R.styleable.SlidingLayer_settleCurve, SlidingDrawer.SETTLE_CURVE_DECELERATE)));
+            }
+        } finally {
+            a.recycle();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns a key identifying the raw values of the drawer attributes and the style
+     * of the given set. References are kept as resource ids, so the key stays the same
+     * for every row inflated from the same layout.
+     */
+    private static String getCacheKey(AttributeSet attrs) {
+        if (attrs == null) {
+            return "";
+        }
+
+        final StringBuilder key = new StringBuilder();
+        key.append(attrs.getStyleAttribute());
+        for (int i = 0, count = attrs.getAttributeCount(); i < count; i++) {
+            final int name = attrs.getAttributeNameResource(i);
+            if (name == 0) {
+                //Unknown attribute, keep it in the key to be safe
+                key.append(';').append(attrs.getAttributeName(i));
+            } else if (isDrawerAttribute(name)) {
+                key.append(';').append(name);
+            } else {
+                continue;
+            }
+            key.append('=').append(attrs.getAttributeValue(i));
+        }
+        return key.toString();
+    }
+
+    private static boolean isDrawerAttribute(int name) {
+        final int[] attrs = R.styleable.SlidingLayer;
+        for (int i = 0; i < attrs.length; i++) {
+            if (attrs[i] == name) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builder of a {@link SlidingDrawerConfig}, initialized with the defaults of the
+     * drawer attributes.
+     */
+    public static final class Builder {
+
+        private int mStickTo = SlidingDrawer.STICK_TO_BOTTOM;
+        private int mOffsetDistance = SlidingDrawer.DEFAULT_SLIDING_LAYER_OFFSET;
+        private int mDragRegion = SlidingDrawer.DRAG_REGION_DRAWER;
+        private int mDragHandleId = View.NO_ID;
+        private int mSettleDuration = SlidingDrawer.TRANSLATION_ANIM_DURATION;
+        private Interpolator mSettleInterpolator = LookupTableInterpolator.decelerate();
+        private float mPrefetchThreshold = SlidingDrawer.DEFAULT_PREFETCH_THRESHOLD;
+        private int mMotionProfile = SlidingDrawer.MOTION_PROFILE_AUTO;
+        private boolean mFreezeContent;
+        private int mTouchSlop;
+
+        /**
+         * Creates a builder with the default values and the touch slop of the device.
+         */
+        public Builder(@NonNull Context context) {
+            //Get system constants for touch thresholds
+            mTouchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+        }
+
+        private Builder(SlidingDrawerConfig config) {
+            mStickTo = config.mStickTo;
+            mOffsetDistance = config.mOffsetDistance;
+            mDragRegion = config.mDragRegion;
+            mDragHandleId = config.mDragHandleId;
+            mSettleDuration = config.mSettleDuration;
+            mSettleInterpolator = config.mSettleInterpolator;
+            mPrefetchThreshold = config.mPrefetchThreshold;
+            mMotionProfile = config.mMotionProfile;
+            mFreezeContent = config.mFreezeContent;
+            mTouchSlop = config.mTouchSlop;
+        }
+
+        /**
+         * @param stickTo one of the STICK_TO values of {@link SlidingDrawer}
+         */
+        public Builder setStickTo(int stickTo) {
+            if (stickTo < SlidingDrawer.STICK_TO_BOTTOM || stickTo > SlidingDrawer.STICK_TO_END) {
+                throw new IllegalArgumentException("Unknown stickTo value: " + stickTo);
+            }
+            mStickTo = stickTo;
+            return this;
+        }
+
+        /**
+         * @param offsetDistance size of the part that sticks out when closed, in pixels
+         */
+        public Builder setOffsetDistance(int offsetDistance) {
+            if (offsetDistance < 0) {
+                throw new IllegalArgumentException("Offset distance cannot be negative.");
+            }
+            mOffsetDistance = offsetDistance;
+            return this;
+        }
+
+        /**
+         * @see SlidingDrawer#setDragRegion(int)
+         */
+        public Builder setDragRegion(int dragRegion) {
+            mDragRegion = dragRegion;
+            return this;
+        }
+
+        /**
+         * @param dragHandleId id of the child view that acts as drag handle, or
+         *                     {@link View#NO_ID}
+         */
+        public Builder setDragHandleId(int dragHandleId) {
+            mDragHandleId = dragHandleId;
+            return this;
+        }
+
+        /**
+         * @see SlidingDrawer#setSettleDuration(int)
+         */
+        public Builder setSettleDuration(int duration) {
+            if (duration < 0) {
+                throw new IllegalArgumentException("Settle duration cannot be negative.");
+            }
+            mSettleDuration = duration;
+            return this;
+        }
+
+        /**
+         * @see SlidingDrawer#setSettleInterpolator(Interpolator)
+         */
+        public Builder setSettleInterpolator(@NonNull Interpolator interpolator) {
+            mSettleInterpolator = interpolator;
+            return this;
+        }
+
+        /**
+         * @see SlidingDrawer#setPrefetchThreshold(float)
+         */
+        public Builder setPrefetchThreshold(float fraction) {
+            if (fraction < 0f || fraction > 1f) {
+                throw new IllegalArgumentException("Prefetch threshold must be in [0, 1].");
+            }
+            mPrefetchThreshold = fraction;
+            return this;
+        }
+
+        /**
+         * @see SlidingDrawer#setMotionProfile(int)
+         */
+        public Builder setMotionProfile(int motionProfile) {
+            mMotionProfile = motionProfile;
+            return this;
+        }
+
+        /**
+         * @see SlidingDrawer#setFreezeContent(boolean)
+         */
+        public Builder setFreezeContent(boolean freezeContent) {
+            mFreezeContent = freezeContent;
+            return this;
+        }
+
+        /**
+         * @param touchSlop distance a touch has to move to start a drag, in pixels
+         */
+        public Builder setTouchSlop(int touchSlop) {
+            if (touchSlop < 0) {
+                throw new IllegalArgumentException("Touch slop cannot be negative.");
+            }
+            mTouchSlop = touchSlop;
+            return this;
+        }
+
+        public SlidingDrawerConfig build() {
+            return new SlidingDrawerConfig(this);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.github.ali.android.client.customview.view;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.view.animation.Interpolator;
+
+import com.github.ali.android.client.customview.SlidingDrawerTrace;
+import com.github.ali.android.client.customview.animation.LookupTableInterpolator;
+
+import java.util.ArrayList;
+
+/**
+ * Opens and closes any number of drawers together, e.g. to close all drawers on
+ * navigation. A single animator moves all drawers on every frame, and the final
+ * margins of all drawers are committed at once, with one layout request per parent.
+ * <p/>
+ * <pre>
+ * SlidingDrawerTransition.closeAll(leftDrawer, rightDrawer, bottomDrawer);
+ * </pre>
+ * A drawer leaves the transition as soon as it is dragged, reset, settled or offset on
+ * its own. Must be used from the UI thread.
+ */
+public final class SlidingDrawerTransition {
+
+    private static final String TRACE_FRAME = "SlidingDrawerTransition#frame";
+    private static final String TRACE_COMMIT = "SlidingDrawerTransition#commit";
+
+    /* Default duration of the transition */
+    private static final int DEFAULT_DURATION = 300;
+
+    private final ArrayList<SlidingDrawer> mDrawers = new ArrayList<>();
+
+    private final ArrayList<Boolean> mOpen = new ArrayList<>();
+
+    /* Edge translations of the drawers, at the start and by the end of the transition */
+    private float[] mFrom;
+    private float[] mTo;
+
+    private long mDuration = DEFAULT_DURATION;
+
+    private Interpolator mInterpolator = LookupTableInterpolator.decelerate();
+
+    private ValueAnimator mAnimator;
+
+    private boolean mStarted;
+
+    /**
+     * Closes all given drawers in one transition.
+     *
+     * @return the started transition
+     */
+    @SuppressWarnings("unused")
+    public static SlidingDrawerTransition closeAll(SlidingDrawer... drawers) {
+        final SlidingDrawerTransition transition = new SlidingDrawerTransition();
+        for (SlidingDrawer drawer : drawers) {
+            transition.close(drawer);
+        }
+        transition.start();
+        return transition;
+    }
+
+    /**
+     * Opens the drawer as part of this transition.
+     */
+    @SuppressWarnings("unused")
+    public SlidingDrawerTransition open(@NonNull SlidingDrawer drawer) {
+        return add(drawer, true);
+    }
+
+    /**
+     * Closes the drawer as part of this transition.
+     */
+    @SuppressWarnings("unused")
+    public SlidingDrawerTransition close(@NonNull SlidingDrawer drawer) {
+        return add(drawer, false);
+    }
+
+    /**
+     * Sets the duration of the transition.
+     *
+     * @param duration duration in milliseconds
+     */
+    @SuppressWarnings("unused")
+    public SlidingDrawerTransition setDuration(long duration) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("Duration cannot be negative.");
+        }
+        mDuration = duration;
+        return this;
+    }
+
+    /**
+     * Sets the curve of the transition, by default the decelerate curve of the drawers.
+     */
+    @SuppressWarnings("unused")
+    public SlidingDrawerTransition setInterpolator(@NonNull Interpolator interpolator) {
+        mInterpolator = interpolator;
+        return this;
+    }
+
+    private SlidingDrawerTransition add(SlidingDrawer drawer, boolean open) {
+        if (mStarted) {
+            throw new IllegalStateException("Transition already started.");
+        }
+
+        final int index = mDrawers.indexOf(drawer);
+        if (index >= 0) {
+            mOpen.set(index, open);
+        } else {
+            mDrawers.add(drawer);
+            mOpen.add(open);
+        }
+        return this;
+    }
+
+    /**
+     * Starts moving all drawers of the transition. Drawers that are not laid out yet are
+     * put into their state right away, without notifying their listeners. If any drawer
+     * runs with reduced motion, the transition is shortened like its settle animation,
+     * or committed at once if animations are off.
+     */
+    @SuppressWarnings("unused")
+    public void start() {
+        if (mStarted) {
+            throw new IllegalStateException("Transition already started.");
+        }
+        mStarted = true;
+
+        //Drop the drawers that are not laid out first, so the indices below stay aligned
+        for (int i = mDrawers.size() - 1; i >= 0; i--) {
+            final SlidingDrawer drawer = mDrawers.get(i);
+            if (drawer.getParent() == null || drawer.getWidth() == 0 || drawer.getHeight() == 0) {
+                drawer.resetDrawer(mOpen.get(i));
+                mDrawers.remove(i);
+                mOpen.remove(i);
+            }
+        }
+
+        final int count = mDrawers.size();
+        mFrom = new float[count];
+        mTo = new float[count];
+        long duration = mDuration;
+        for (int i = 0; i < count; i++) {
+            final SlidingDrawer drawer = mDrawers.get(i);
+            mFrom[i] = drawer.getTransitionTranslation();
+            mTo[i] = drawer.beginTransition(this, mOpen.get(i));
+            duration = Math.min(duration, drawer.getMotionDuration(mDuration));
+        }
+
+        if (duration == 0) {
+            //Animations are off, skip the animator altogether
+            commit();
+            return;
+        }
+
+        final TransitionListener listener = new TransitionListener();
+        mAnimator = ValueAnimator.ofFloat(0f, 1f);
+        mAnimator.setDuration(duration);
+        mAnimator.setInterpolator(mInterpolator);
+        mAnimator.addUpdateListener(listener);
+        mAnimator.addListener(listener);
+        mAnimator.start();
+    }
+
+    /**
+     * Stops the transition, leaving the drawers where they are.
+     */
+    @SuppressWarnings("unused")
+    public void cancel() {
+        if (mAnimator != null) {
+            mAnimator.cancel();
+        }
+    }
+
+    @SuppressWarnings("unused")
+    public boolean isRunning() {
+        return mAnimator != null && mAnimator.isRunning();
+    }
+
+    private void onFrame(float fraction) {
+        final boolean trace = SlidingDrawerTrace.isEnabled();
+        if (trace) SlidingDrawerTrace.beginSection(TRACE_FRAME);
+
+        final ArrayList<SlidingDrawer> drawers = mDrawers;
+        for (int i = 0, count = drawers.size(); i < count; i++) {
+            final SlidingDrawer drawer = drawers.get(i);
+            if (drawer.isDrivenBy(this)) {
+                drawer.setTransitionTranslation(mFrom[i] + (mTo[i] - mFrom[i]) * fraction);
+            }
+        }
+
+        if (trace) SlidingDrawerTrace.endSection();
+    }
+
+    private void commit() {
+        final boolean trace = SlidingDrawerTrace.isEnabled();
+        if (trace) SlidingDrawerTrace.beginSection(TRACE_COMMIT);
+
+        final ArrayList<SlidingDrawer> drawers = mDrawers;
+        final ArrayList<View> parents = new ArrayList<>();
+        for (int i = 0, count = drawers.size(); i < count; i++) {
+            final SlidingDrawer drawer = drawers.get(i);
+            if (!drawer.isDrivenBy(this)) {
+                continue;
+            }
+
+            //Margins are updated in place, the parents are laid out once below
+            drawer.commitTransition();
+
+            final View parent = (View) drawer.getParent();
+            if (parent != null && !parents.contains(parent)) {
+                parents.add(parent);
+            }
+        }
+        for (int i = 0, count = parents.size(); i < count; i++) {
+            parents.get(i).requestLayout();
+        }
+
+        if (trace) SlidingDrawerTrace.endSection();
+    }
+
+    private void abandon() {
+        final ArrayList<SlidingDrawer> drawers = mDrawers;
+        for (int i = 0, count = drawers.size(); i < count; i++) {
+            final SlidingDrawer drawer = drawers.get(i);
+            if (drawer.isDrivenBy(this)) {
+                drawer.abandonTransition();
+            }
+        }
+    }
+
+    private final class TransitionListener extends AnimatorListenerAdapter
+            implements ValueAnimator.AnimatorUpdateListener {
+
+        private boolean mCanceled;
+
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+            onFrame(animation.getAnimatedFraction());
+        }
+
+        @Override
+        public void onAnimationCancel(Animator animation) {
+            mCanceled = true;
+            abandon();
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            if (!mCanceled) {
+                commit();
+            }
+        }
+    }
+}